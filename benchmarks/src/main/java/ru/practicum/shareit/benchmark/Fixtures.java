@@ -0,0 +1,102 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.Status;
+import ru.practicum.shareit.comment.entity.Comment;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.request.entity.ItemRequest;
+import ru.practicum.shareit.user.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Связанные сущности для бенчмарков: у каждой вещи есть владелец, запрос, последнее и следующее
+ * бронирование и commentsPerItem комментариев. Все ссылки заполнены, ленивой загрузки нет.
+ */
+public final class Fixtures {
+    public static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    public static User user(long id) {
+        return User.builder()
+                .id(id)
+                .name("user " + id)
+                .email("user" + id + "@example.com")
+                .build();
+    }
+
+    public static List<Item> items(int count) {
+        User owner = user(1);
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            ItemRequest request = new ItemRequest();
+            request.setId(id);
+            request.setDescription("request " + id);
+            request.setRequester(user(id + 1));
+            request.setCreated(NOW.minusDays(id));
+
+            Item item = Item.builder()
+                    .id(id)
+                    .name("item " + id)
+                    .description("description of item " + id)
+                    .available(true)
+                    .user(owner)
+                    .request(request)
+                    .build();
+            request.setItems(new HashSet<>(List.of(item)));
+            item.setLastBooking(booking(id * 2, item, user(id + 1), NOW.minusDays(3)));
+            item.setNextBooking(booking(id * 2 + 1, item, user(id + 2), NOW.plusDays(3)));
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static List<Booking> bookings(List<Item> items) {
+        List<Booking> bookings = new ArrayList<>();
+        for (Item item : items) {
+            bookings.add(item.getLastBooking());
+        }
+        return bookings;
+    }
+
+    public static List<ItemRequest> requests(List<Item> items) {
+        List<ItemRequest> requests = new ArrayList<>();
+        for (Item item : items) {
+            requests.add(item.getRequest());
+        }
+        return requests;
+    }
+
+    public static List<Comment> comments(List<Item> items, int commentsPerItem) {
+        List<Comment> comments = new ArrayList<>();
+        long id = 1;
+        for (Item item : items) {
+            for (int i = 0; i < commentsPerItem; i++, id++) {
+                comments.add(Comment.builder()
+                        .id(id)
+                        .text("comment " + id + " about " + item.getName())
+                        .created(NOW.minusHours(id))
+                        .item(item)
+                        .author(user(id % 50 + 2))
+                        .build());
+            }
+        }
+        return comments;
+    }
+
+    private static Booking booking(long id, Item item, User booker, LocalDateTime start) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(start.plusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build();
+    }
+}
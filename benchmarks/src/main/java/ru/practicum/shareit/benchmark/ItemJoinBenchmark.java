@@ -0,0 +1,58 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.comment.entity.Comment;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoJoin;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.entity.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Соединение страницы вещей с бронированиями и комментариями в памяти (ItemDtoJoin), как в списке вещей владельца
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemJoinBenchmark {
+    @Param({"10", "20"})
+    private int pageSize;
+
+    @Param({"0", "5"})
+    private int commentsPerItem;
+
+    private List<Item> items;
+    private List<Comment> comments;
+
+    @Setup
+    public void setUp() {
+        items = Fixtures.items(pageSize);
+        comments = Fixtures.comments(items, commentsPerItem);
+    }
+
+    @Benchmark
+    public List<ItemDto> setBookingsAndComments() {
+        List<ItemDto> itemDtos = ItemMapper.toItemDtoList(items);
+        for (int i = 0; i < items.size(); i++) {
+            ItemDtoJoin.setBookings(itemDtos.get(i), items.get(i));
+            ItemDtoJoin.setComments(itemDtos.get(i), comments);
+        }
+        return itemDtos;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingOutDto;
+import ru.practicum.shareit.comment.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.entity.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация страницы ItemDto (с бронированиями и комментариями) и BookingOutDto в JSON.
+ * ObjectMapper собирается Jackson2ObjectMapperBuilder с теми же настройками, что у Spring MVC в сервере.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"10", "20"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<ItemDto> itemDtos;
+    private List<BookingOutDto> bookingDtos;
+
+    @Setup
+    public void setUp() {
+        List<Item> items = Fixtures.items(pageSize);
+        itemDtos = ItemMapper.toItemDtoList(items);
+        for (int i = 0; i < items.size(); i++) {
+            itemDtos.get(i).setLastBooking(BookingMapper.toBookingShortDto(items.get(i).getLastBooking()));
+            itemDtos.get(i).setNextBooking(BookingMapper.toBookingShortDto(items.get(i).getNextBooking()));
+            itemDtos.get(i).setComments(CommentMapper.toCommentDtoList(Fixtures.comments(List.of(items.get(i)), 3)));
+        }
+        bookingDtos = BookingMapper.toBookingDtoList(Fixtures.bookings(items));
+    }
+
+    @Benchmark
+    public byte[] itemDtoPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(itemDtos);
+    }
+
+    @Benchmark
+    public byte[] bookingDtoPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookingDtos);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingOutDto;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.comment.dto.CommentMapper;
+import ru.practicum.shareit.comment.entity.Comment;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.request.dto.RequestDtoResponseWithItem;
+import ru.practicum.shareit.request.entity.ItemRequest;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.mapper.ItemRequestMapperImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отображение страницы сущностей в DTO: статические мапперы и MapStruct-реализация ItemRequestMapper
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"10", "20"})
+    private int pageSize;
+
+    private final ItemRequestMapper itemRequestMapper = new ItemRequestMapperImpl();
+    private List<Item> items;
+    private List<Booking> bookings;
+    private List<ItemRequest> requests;
+    private List<Comment> comments;
+
+    @Setup
+    public void setUp() {
+        items = Fixtures.items(pageSize);
+        bookings = Fixtures.bookings(items);
+        requests = Fixtures.requests(items);
+        comments = Fixtures.comments(items, 1);
+    }
+
+    @Benchmark
+    public List<BookingOutDto> bookingDtoList() {
+        return BookingMapper.toBookingDtoList(bookings);
+    }
+
+    @Benchmark
+    public List<ItemDto> itemDtoList() {
+        return ItemMapper.toItemDtoList(items);
+    }
+
+    @Benchmark
+    public List<RequestDtoResponseWithItem> itemRequestMapper() {
+        return itemRequestMapper.mapToRequestDtoResponseWithItem(requests);
+    }
+
+    @Benchmark
+    public List<CommentDto> commentDtoList() {
+        return CommentMapper.toCommentDtoList(comments);
+    }
+}
@@ -10,19 +10,23 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.State;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.handler.exception.StateValidationException;
+import ru.practicum.shareit.user.KnownUserIds;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         KnownUserIds knownUserIds) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                knownUserIds
         );
     }
 
@@ -42,25 +46,25 @@ public class BookingClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getAllBrookingByBookerId(Long userId, String state, Integer from,
-                                                              Integer size) {
+                                                              Integer size, String after) {
         validateState(state);
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&&from={from}&&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?state={state}&&from={from}&&size={size}", parameters, after), userId, parameters);
     }
 
     public ResponseEntity<Object> getAllBookingsForAllItemsByOwnerId(Long userId, String state, Integer from,
-                                                                   Integer size) {
+                                                                   Integer size, String after) {
         validateState(state);
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&&from={from}&&size={size}", userId, parameters);
+        ));
+        return get(withCursor("/owner?state={state}&&from={from}&&size={size}", parameters, after), userId, parameters);
     }
 
     private void validateState(String state) {
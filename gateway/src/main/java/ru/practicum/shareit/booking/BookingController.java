@@ -54,9 +54,10 @@ public class BookingController {
             @RequestHeader(Header.userIdHeader) @Min(1) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size,
+            @RequestParam(value = "after", required = false) String after) {
         log.info("GET: request to the endpoint was received: '/bookings?state={state}&&from={from}&&size={size}");
-        return bookingClient.getAllBrookingByBookerId(userId, state, from, size);
+        return bookingClient.getAllBrookingByBookerId(userId, state, from, size, after);
     }
 
     @GetMapping("owner")
@@ -64,8 +65,9 @@ public class BookingController {
             @RequestHeader(Header.userIdHeader) @Min(1) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size,
+            @RequestParam(value = "after", required = false) String after) {
         log.info("GET: request to the endpoint was received: '/bookings/owner?state={state}&&from={from}&&size={size}");
-        return bookingClient.getAllBookingsForAllItemsByOwnerId(userId, state, from, size);
+        return bookingClient.getAllBookingsForAllItemsByOwnerId(userId, state, from, size, after);
     }
 }
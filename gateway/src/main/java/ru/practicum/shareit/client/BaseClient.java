@@ -2,6 +2,7 @@ package ru.practicum.shareit.client;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -11,12 +12,23 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.handler.exception.UserNotFoundException;
+import ru.practicum.shareit.user.KnownUserIds;
 
 public class BaseClient {
+    /**
+     * Заголовки ответа сервера, которые относятся к его соединению с gateway, а не к телу ответа.
+     * Тело заново сериализуется gateway, поэтому Content-Length сервера тоже не подходит
+     */
+    private static final Set<String> CONNECTION_HEADERS = Set.of(HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.CONNECTION.toLowerCase(), "keep-alive", HttpHeaders.CONTENT_LENGTH.toLowerCase());
+
     protected final RestTemplate rest;
+    private final KnownUserIds knownUserIds;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, KnownUserIds knownUserIds) {
         this.rest = rest;
+        this.knownUserIds = knownUserIds;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -31,6 +43,14 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    /**
+     * GET для эндпоинтов, которые принимают X-Sharer-User-Id, но не проверяют пользователя:
+     * запрос уходит на сервер и с неизвестным id
+     */
+    protected ResponseEntity<Object> getForAnyUser(String path, long userId, Map<String, Object> parameters) {
+        return sendRequest(HttpMethod.GET, path, userId, parameters, null);
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -79,9 +99,38 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Добавляет к параметрам курсор keyset-пагинации after, если он передан клиентом
+     */
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String after) {
+        if (after == null) {
+            return path;
+        }
+        parameters.put("after", after);
+        return path + "&after={after}";
+    }
+
+    /**
+     * Отвечает 404 без обращения к серверу, если пользователя заведомо нет
+     */
+    protected void requireKnownUser(long userId) {
+        if (knownUserIds.isUnknown(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        if (userId != null) {
+            requireKnownUser(userId);
+        }
+        return sendRequest(method, path, userId, parameters, body);
+    }
+
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
+        ServerCallEvent event = new ServerCallEvent();
+        event.begin();
         ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null) {
@@ -89,8 +138,17 @@ public class BaseClient {
             } else {
                 shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
             }
+            event.status = shareitServerResponse.getStatusCodeValue();
         } catch (HttpStatusCodeException e) {
+            event.status = e.getRawStatusCode();
             return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        } finally {
+            if (event.shouldCommit()) {
+                event.client = getClass().getSimpleName();
+                event.method = method.name();
+                event.path = path;
+                event.commit();
+            }
         }
         return prepareGatewayResponse(shareitServerResponse);
     }
@@ -107,7 +165,13 @@ public class BaseClient {
 
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+            HttpHeaders headers = new HttpHeaders();
+            response.getHeaders().forEach((name, values) -> {
+                if (!CONNECTION_HEADERS.contains(name.toLowerCase())) {
+                    headers.addAll(name, values);
+                }
+            });
+            return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.client.RestTemplateExchangeTags;
+import org.springframework.boot.actuate.metrics.web.client.RestTemplateExchangeTagsProvider;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Теги метрики http.client.requests для запросов BaseClient к серверу.
+ * Клиенты передают в RestTemplate уже подставленные пути ("/" + itemId), поэтому стандартный тег uri
+ * получал бы отдельное значение на каждый id. Здесь uri - путь запроса на сервере с {id} вместо чисел,
+ * а client - первый сегмент пути, то есть API_PREFIX подкласса BaseClient (items, bookings, users, requests).
+ */
+@Component
+public class ClientRequestTagsProvider implements RestTemplateExchangeTagsProvider {
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    @Override
+    public Iterable<Tag> getTags(String urlTemplate, HttpRequest request, ClientHttpResponse response) {
+        String path = request.getURI().getPath();
+        return Tags.of(RestTemplateExchangeTags.method(request),
+                Tag.of("uri", ID_SEGMENT.matcher(path).replaceAll("/{id}")),
+                Tag.of("client", client(path)),
+                RestTemplateExchangeTags.status(response),
+                RestTemplateExchangeTags.outcome(response));
+    }
+
+    private static String client(String path) {
+        if (path.length() < 2) {
+            return "none";
+        }
+        int end = path.indexOf('/', 1);
+        return end < 0 ? path.substring(1) : path.substring(1, end);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR: запрос gateway к серверу (BaseClient.makeAndSendRequest) от отправки до разбора ответа
+ */
+
+@Name("ru.practicum.shareit.ServerCall")
+@Label("Server Call")
+@Category({"ShareIt", "Gateway"})
+@Description("Проксирование запроса gateway на сервер ShareIt")
+@StackTrace(false)
+class ServerCallEvent extends Event {
+    @Label("Client")
+    String client;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    @Description("Путь относительно API_PREFIX клиента, параметры не подставлены")
+    String path;
+
+    @Label("Status")
+    @Description("HTTP-статус ответа сервера, 0 - ответа нет")
+    int status;
+}
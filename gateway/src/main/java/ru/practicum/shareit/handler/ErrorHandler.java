@@ -7,6 +7,8 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.handler.exception.StateValidationException;
+import ru.practicum.shareit.handler.exception.UserNotFoundException;
+import ru.practicum.shareit.handler.response.ErrorResponse;
 import ru.practicum.shareit.handler.response.StateErrorResponse;
 
 import javax.validation.ValidationException;
@@ -31,6 +33,14 @@ public class ErrorHandler {
                 .body(new StateErrorResponse(exception.getMessage()));
     }
 
+    @ExceptionHandler(UserNotFoundException.class)
+    private ResponseEntity<ErrorResponse> handleException(UserNotFoundException exception) {
+        log.debug("Получен статус 404 NOT_FOUND {}", exception.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(exception.getMessage(), null));
+    }
+
     @ExceptionHandler(ValidationException.class)
     private ResponseEntity<String> handleException(ValidationException exception) {
         log.debug("Получен статус 400 BAD_REQUEST {}", exception.getMessage(), exception);
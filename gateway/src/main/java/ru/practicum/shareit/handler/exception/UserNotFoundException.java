@@ -0,0 +1,16 @@
+package ru.practicum.shareit.handler.exception;
+
+import lombok.Getter;
+
+/**
+ * Пользователя из X-Sharer-User-Id заведомо нет (KnownUserIds): запрос не отправляется на сервер,
+ * ответ - такой же 404, как у сервера
+ */
+@Getter
+public class UserNotFoundException extends RuntimeException {
+    private final String message;
+
+    public UserNotFoundException(long userId) {
+        this.message = "ERROR: User with ID = " + userId + " not found!";
+    }
+}
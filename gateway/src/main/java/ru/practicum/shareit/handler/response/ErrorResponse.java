@@ -0,0 +1,14 @@
+package ru.practicum.shareit.handler.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Тело ошибки в формате ErrorResponse сервера
+ */
+@Getter
+@AllArgsConstructor
+public class ErrorResponse {
+    private String error;
+    private String description;
+}
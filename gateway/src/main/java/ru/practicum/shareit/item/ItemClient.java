@@ -9,8 +9,10 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.KnownUserIds;
 
-
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,12 +20,14 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
 
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      KnownUserIds knownUserIds) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                knownUserIds
         );
     }
 
@@ -31,21 +35,30 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, ownerId);
     }
 
-    public ResponseEntity<Object> getItemsByOwner(Long ownerId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getItemsByOwner(Long ownerId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", ownerId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", parameters, after), ownerId, parameters);
     }
 
-    public ResponseEntity<Object> searchItems(Long userId, String text, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> searchItems(Long userId, String text, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
                 "size", size
+        ));
+        return getForAnyUser(withCursor("/search?text={text}&from={from}&size={size}", parameters, after), userId,
+                parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return getForAnyUser("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
     }
 
     public ResponseEntity<Object> createItem(Long ownerId, ItemDto itemDto) {
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -12,8 +13,10 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.ValidationException;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/items")
@@ -34,8 +37,9 @@ public class ItemController {
     public ResponseEntity<Object> getItemsByOwner(
             @RequestHeader(Header.userIdHeader) @Min(1) Long ownerId,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size) {
-        return itemClient.getItemsByOwner(ownerId, from, size);
+            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size,
+            @RequestParam(value = "after", required = false) String after) {
+        return itemClient.getItemsByOwner(ownerId, from, size, after);
     }
 
     @GetMapping("search")
@@ -43,9 +47,23 @@ public class ItemController {
             @RequestHeader(Header.userIdHeader) @Min(1) Long userId,
             @RequestParam String text,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size,
+            @RequestParam(value = "after", required = false) String after) {
         log.info("GET: request was received to the endpoint: '/items/search' to search for an item with text={}", text);
-        return itemClient.searchItems(userId, text, from, size);
+        return itemClient.searchItems(userId, text, from, size, after);
+    }
+
+    @GetMapping("{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(
+            @RequestHeader(Header.userIdHeader) @Min(1) Long userId,
+            @PathVariable @Min(1) Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Availability: Problem in dates");
+        }
+        log.info("GET: request was received to the endpoint: '/items/{itemId}/availability' item {} from {} to {}", itemId, from, to);
+        return itemClient.getAvailability(userId, itemId, from, to);
     }
 
     @PostMapping
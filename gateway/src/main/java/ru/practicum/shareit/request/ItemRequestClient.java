@@ -9,7 +9,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.KnownUserIds;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -17,12 +19,14 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
 
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             KnownUserIds knownUserIds) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                knownUserIds
         );
     }
 
@@ -30,20 +34,20 @@ public class ItemRequestClient extends BaseClient {
         return post("", requesterId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getPrivateRequests(Long requesterId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getPrivateRequests(Long requesterId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&&size={size}", requesterId, parameters);
+        ));
+        return get(withCursor("?from={from}&&size={size}", parameters, after), requesterId, parameters);
     }
 
-    public ResponseEntity<Object> getOtherRequests(Long requesterId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getOtherRequests(Long requesterId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&&size={size}", requesterId, parameters);
+        ));
+        return get(withCursor("/all?from={from}&&size={size}", parameters, after), requesterId, parameters);
     }
 
     public ResponseEntity<Object> getItemRequest(Long userId, Long requestId) {
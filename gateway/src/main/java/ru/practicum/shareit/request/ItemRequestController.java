@@ -32,18 +32,20 @@ public class ItemRequestController {
     public ResponseEntity<Object> getPrivateRequests(
             @RequestHeader(Header.userIdHeader) @Min(1) Long requesterId,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size,
+            @RequestParam(value = "after", required = false) String after) {
         log.info("GET: request to the endpoint was received: '/requests' get private requests");
-        return itemRequestClient.getPrivateRequests(requesterId, from, size);
+        return itemRequestClient.getPrivateRequests(requesterId, from, size, after);
     }
 
     @GetMapping("all")
     public ResponseEntity<Object> getOtherRequests(
             @RequestHeader(Header.userIdHeader) @Min(1) Long requesterId,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) Integer size,
+            @RequestParam(value = "after", required = false) String after) {
         log.info("GET: request to the endpoint was received: '/requests' get other requests");
-        return itemRequestClient.getOtherRequests(requesterId, from, size);
+        return itemRequestClient.getOtherRequests(requesterId, from, size, after);
     }
 
     @GetMapping("{requestId}")
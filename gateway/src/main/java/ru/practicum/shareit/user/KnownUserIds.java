@@ -0,0 +1,74 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Известные gateway id пользователей: BitSet с сервера (KnownUserIdsSync) плюс создания и удаления
+ * через этот gateway. identity выдает id при вставке, а не при коммите: на момент синхронизации
+ * пользователь с меньшим id еще может быть не закоммичен, в том числе на другой реплике gateway.
+ * Поэтому неизвестным считается только отсутствующий id не больше settledMaxId - наибольшего id
+ * предыдущей синхронизации, которая была не меньше refresh-interval назад. Отсутствующие id выше него
+ * проверяет сам сервер запросом, ради которого шла проверка. До второй синхронизации неизвестных нет.
+ * Ложный 404 возможен только для вставки, транзакция которой длилась дольше refresh-interval.
+ * Индекс BitSet - int: id больше MAX_BIT_ID сервер в множество не включает, и здесь они не хранятся.
+ * settledMaxId тоже не больше MAX_BIT_ID, так что такие id всегда проверяет сервер, а не отсеивает gateway.
+ */
+
+@Component
+public class KnownUserIds {
+    private static final long MAX_BIT_ID = Integer.MAX_VALUE - 1L;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private BitSet ids;
+    private long syncedMaxId = -1;
+    private long settledMaxId = -1;
+
+    /**
+     * true, если пользователя с таким id заведомо нет и запрос к серверу закончится 404
+     */
+    public boolean isUnknown(long userId) {
+        lock.readLock().lock();
+        try {
+            return ids != null && userId <= settledMaxId && (userId < 0 || !ids.get((int) userId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void replace(BitSet synced) {
+        lock.writeLock().lock();
+        try {
+            ids = synced;
+            settledMaxId = syncedMaxId;
+            syncedMaxId = synced.length() - 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void add(long userId) {
+        lock.writeLock().lock();
+        try {
+            if (ids != null && userId >= 0 && userId <= MAX_BIT_ID) {
+                ids.set((int) userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            if (ids != null && userId >= 0 && userId <= MAX_BIT_ID) {
+                ids.clear((int) userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
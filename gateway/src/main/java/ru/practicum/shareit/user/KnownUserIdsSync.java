@@ -0,0 +1,34 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.BitSet;
+
+/**
+ * Периодически заменяет KnownUserIds множеством id с сервера (GET /users/ids).
+ * Пока сервер недоступен, остается прежнее множество (или никакого - тогда все запросы идут на сервер).
+ */
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KnownUserIdsSync {
+    private final UserClient userClient;
+    private final KnownUserIds knownUserIds;
+
+    @Scheduled(fixedDelayString = "${shareit-server.user-ids.refresh-interval}")
+    public void refresh() {
+        try {
+            byte[] bytes = userClient.getUserIds();
+            BitSet ids = bytes == null ? new BitSet() : BitSet.valueOf(bytes);
+            knownUserIds.replace(ids);
+            log.debug("Known user ids refreshed: {} users", ids.cardinality());
+        } catch (RestClientException e) {
+            log.warn("Known user ids refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -9,18 +9,24 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
+    private final KnownUserIds knownUserIds;
 
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      KnownUserIds knownUserIds) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                knownUserIds
         );
+        this.knownUserIds = knownUserIds;
     }
 
     public ResponseEntity<Object> getUsers() {
@@ -28,18 +34,39 @@ public class UserClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getUserById(Long userId) {
+        requireKnownUser(userId);
         return get("/" + userId);
     }
 
     public ResponseEntity<Object> createUser(UserDto userDto) {
-        return post("", userDto);
+        ResponseEntity<Object> response = post("", userDto);
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() instanceof Map) {
+            Object id = ((Map<?, ?>) response.getBody()).get("id");
+            if (id instanceof Number) {
+                knownUserIds.add(((Number) id).longValue());
+            }
+        }
+        return response;
     }
 
     public ResponseEntity<Object> updateUser(UserDto userDto, Long userId) {
+        requireKnownUser(userId);
         return patch("/" + userId, userDto);
     }
 
     public ResponseEntity<Object> deleteUser(Long userId) {
-        return delete("/" + userId);
+        requireKnownUser(userId);
+        ResponseEntity<Object> response = delete("/" + userId);
+        if (response.getStatusCode().is2xxSuccessful()) {
+            knownUserIds.remove(userId);
+        }
+        return response;
+    }
+
+    /**
+     * Байты BitSet id существующих пользователей, см. KnownUserIdsSync; null, если пользователей нет
+     */
+    byte[] getUserIds() {
+        return rest.getForObject("/ids", byte[].class);
     }
 }
\ No newline at end of file
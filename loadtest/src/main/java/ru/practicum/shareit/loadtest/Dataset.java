@@ -0,0 +1,89 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Синтетический набор данных, созданный через REST. Каждый пятый пользователь - владелец вещей,
+ * остальные бронируют и оставляют запросы. Треть вещей создана в ответ на запросы, половина
+ * бронирований подтверждена. Бронирования не пересекаются: каждое занимает свой часовой слот.
+ */
+public class Dataset {
+    static final String[] WORDS = {"drill", "saw", "ladder", "tent", "bike", "kayak", "camera", "projector",
+            "guitar", "mixer", "scooter", "telescope"};
+
+    private final List<Long> owners = new ArrayList<>();
+    private final List<Long> bookers = new ArrayList<>();
+    private final List<Long> items = new ArrayList<>();
+    private final Map<Long, Long> itemOwners = new HashMap<>();
+    private final LocalDateTime firstSlot = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.HOURS);
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    public static Dataset seed(ShareItApi api, LoadTestOptions options) throws IOException, InterruptedException {
+        if (options.users() < 2) {
+            throw new IllegalArgumentException("At least 2 users are needed: an owner and a booker");
+        }
+        Random random = new Random(options.seed());
+        Dataset dataset = new Dataset();
+        for (int i = 0; i < options.users(); i++) {
+            long user = api.create("/users", null, Map.of("name", "user " + i, "email", "user" + i + "@example.com"));
+            (i % 5 == 0 ? dataset.owners : dataset.bookers).add(user);
+        }
+        List<Long> requests = new ArrayList<>();
+        for (int i = 0; i < options.requests(); i++) {
+            requests.add(api.create("/requests", dataset.randomBooker(random),
+                    Map.of("description", "need a " + WORDS[i % WORDS.length])));
+        }
+        for (int i = 0; i < options.items(); i++) {
+            long owner = dataset.owners.get(i % dataset.owners.size());
+            String word = WORDS[random.nextInt(WORDS.length)];
+            Map<String, Object> item = new HashMap<>(Map.of("name", word + " " + i,
+                    "description", "synthetic " + word + " number " + i, "available", true));
+            if (i % 3 == 0 && !requests.isEmpty()) {
+                item.put("requestId", requests.get(random.nextInt(requests.size())));
+            }
+            long id = api.create("/items", owner, item);
+            dataset.items.add(id);
+            dataset.itemOwners.put(id, owner);
+        }
+        for (int i = 0; i < options.bookings(); i++) {
+            long item = dataset.randomItem(random);
+            long booking = api.create("/bookings", dataset.randomBooker(random), dataset.nextBooking(item));
+            if (i % 2 == 0) {
+                api.call("PATCH", "/bookings/" + booking + "?approved=true", dataset.ownerOf(item), null);
+            }
+        }
+        return dataset;
+    }
+
+    public long randomOwner(Random random) {
+        return owners.get(random.nextInt(owners.size()));
+    }
+
+    public long randomBooker(Random random) {
+        return bookers.get(random.nextInt(bookers.size()));
+    }
+
+    public long randomItem(Random random) {
+        return items.get(random.nextInt(items.size()));
+    }
+
+    public long ownerOf(long item) {
+        return itemOwners.get(item);
+    }
+
+    /**
+     * Тело POST /bookings на следующий свободный часовой слот
+     */
+    public Map<String, Object> nextBooking(long item) {
+        LocalDateTime start = firstSlot.plusHours(nextSlot.getAndIncrement());
+        return Map.of("itemId", item, "start", start.toString(), "end", start.plusMinutes(30).toString());
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.loadtest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Spring Boot приложение из исполняемого jar, запущенное в этой же JVM в собственном загрузчике классов.
+ * Загрузчик не видит classpath нагрузочного теста, поэтому классы gateway и server не смешиваются.
+ * Запуск повторяет JarLauncher.main, но до старта приложения отключает TomcatURLStreamHandlerFactory:
+ * фабрику URL можно установить один раз на JVM, и второй Tomcat без этого не стартует.
+ */
+public final class EmbeddedApplication {
+    private static final String LAUNCHER = "org.springframework.boot.loader.JarLauncher";
+    private static final String JAR_FILE = "org.springframework.boot.loader.jar.JarFile";
+    private static final String TOMCAT_URL_FACTORY = "org.apache.catalina.webresources.TomcatURLStreamHandlerFactory";
+    private static final long START_TIMEOUT_SECONDS = 120;
+
+    private EmbeddedApplication() {
+    }
+
+    /**
+     * Запускает приложение и ждет, пока оно поднимет контекст и веб-сервер
+     */
+    public static void start(String name, Path jar, List<String> args) throws InterruptedException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException(name + " jar not found: " + jar.toAbsolutePath()
+                    + ", build it with mvn package");
+        }
+        ClassLoader loader;
+        try {
+            loader = new URLClassLoader(name, new URL[]{jar.toUri().toURL()}, ClassLoader.getPlatformClassLoader());
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread main = new Thread(() -> {
+            try {
+                launch(loader, args.toArray(new String[0]));
+            } catch (InvocationTargetException e) {
+                failure.set(e.getCause());
+            } catch (ReflectiveOperationException e) {
+                failure.set(e);
+            }
+        }, name + "-main");
+        main.setContextClassLoader(loader);
+        main.start();
+        main.join(TimeUnit.SECONDS.toMillis(START_TIMEOUT_SECONDS));
+        if (main.isAlive()) {
+            throw new IllegalStateException(name + " did not start in " + START_TIMEOUT_SECONDS + " seconds");
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException(name + " failed to start", failure.get());
+        }
+    }
+
+    private static void launch(ClassLoader loader, String[] args) throws ReflectiveOperationException {
+        Object launcher = loader.loadClass(LAUNCHER).getConstructor().newInstance();
+        loader.loadClass(JAR_FILE).getMethod("registerUrlProtocolHandler").invoke(null);
+        Object archives = invoke(launcher, "getClassPathArchivesIterator", new Class<?>[0]);
+        ClassLoader applicationLoader = (ClassLoader) invoke(launcher, "createClassLoader",
+                new Class<?>[]{Iterator.class}, archives);
+        applicationLoader.loadClass(TOMCAT_URL_FACTORY).getMethod("disable").invoke(null);
+        String mainClass = (String) invoke(launcher, "getMainClass", new Class<?>[0]);
+        invoke(launcher, "launch", new Class<?>[]{String[].class, String.class, ClassLoader.class},
+                args, mainClass, applicationLoader);
+    }
+
+    /**
+     * Вызов защищенного метода лаунчера, объявленного в нем или в одном из его суперклассов
+     */
+    private static Object invoke(Object target, String name, Class<?>[] types, Object... args)
+            throws ReflectiveOperationException {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Method method = type.getDeclaredMethod(name, types);
+                method.setAccessible(true);
+                return method.invoke(target, args);
+            } catch (NoSuchMethodException e) {
+                // метод объявлен в суперклассе
+            }
+        }
+        throw new NoSuchMethodException(target.getClass().getName() + "." + name);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки по эндпоинтам в HdrHistogram, в микросекундах. Ошибочные ответы (не 2xx) и исключения
+ * считаются отдельно и в гистограмму не попадают.
+ */
+public class LatencyReport {
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    public void record(String endpoint, long latencyNanos, boolean successful) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        if (successful) {
+            stats.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY));
+        } else {
+            stats.errors.increment();
+        }
+    }
+
+    public void print(PrintStream out, Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("%-22s %9s %7s %9s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "rps",
+                "p50, ms", "p90, ms", "p99, ms", "p99.9, ms", "max, ms");
+        Histogram total = new Histogram(HIGHEST_LATENCY, SIGNIFICANT_DIGITS);
+        long totalErrors = 0;
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Histogram histogram = entry.getValue().histogram.copy();
+            long errors = entry.getValue().errors.sum();
+            total.add(histogram);
+            totalErrors += errors;
+            printRow(out, entry.getKey(), histogram, errors, seconds);
+        }
+        printRow(out, "total", total, totalErrors, seconds);
+    }
+
+    /**
+     * Полные распределения в формате .hgrm: их можно сравнивать между прогонами в HdrHistogram plotter
+     */
+    public void writeHistograms(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Path file = dir.resolve(entry.getKey().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        out.printf("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), errors,
+                (histogram.getTotalCount() + errors) / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Endpoint {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY, SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметры прогона в виде --ключ=значение. Аргументы с префиксами --server: и --gateway: передаются
+ * соответствующему приложению без префикса, например --server:spring.profiles.active=default
+ * запускает сервер на локальном PostgreSQL вместо H2.
+ */
+public class LoadTestOptions {
+    private static final String SERVER_PREFIX = "--server:";
+    private static final String GATEWAY_PREFIX = "--gateway:";
+
+    private final Map<String, String> values = new HashMap<>();
+    private final List<String> serverArgs = new ArrayList<>(List.of(
+            "--spring.profiles.active=test",
+            "--logging.level.root=WARN"));
+    private final List<String> gatewayArgs = new ArrayList<>(List.of(
+            "--logging.level.root=WARN",
+            "--logging.level.org.springframework.web.client.RestTemplate=WARN"));
+
+    public LoadTestOptions(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(SERVER_PREFIX)) {
+                serverArgs.add("--" + arg.substring(SERVER_PREFIX.length()));
+            } else if (arg.startsWith(GATEWAY_PREFIX)) {
+                gatewayArgs.add("--" + arg.substring(GATEWAY_PREFIX.length()));
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", expected --name=value");
+            }
+        }
+    }
+
+    public Path serverJar() {
+        return Path.of(values.getOrDefault("server-jar", "server/target/shareit-server-0.0.1-SNAPSHOT.jar"));
+    }
+
+    public Path gatewayJar() {
+        return Path.of(values.getOrDefault("gateway-jar", "gateway/target/shareit-gateway-0.0.1-SNAPSHOT.jar"));
+    }
+
+    public List<String> serverArgs() {
+        return serverArgs;
+    }
+
+    public List<String> gatewayArgs() {
+        return gatewayArgs;
+    }
+
+    public int users() {
+        return intValue("users", 100);
+    }
+
+    public int items() {
+        return intValue("items", 1000);
+    }
+
+    public int requests() {
+        return intValue("requests", 300);
+    }
+
+    public int bookings() {
+        return intValue("bookings", 2000);
+    }
+
+    public double rps() {
+        return Double.parseDouble(values.getOrDefault("rps", "200"));
+    }
+
+    public int virtualUsers() {
+        return intValue("virtual-users", 32);
+    }
+
+    public Duration warmup() {
+        return Duration.ofSeconds(intValue("warmup", 15));
+    }
+
+    public Duration duration() {
+        return Duration.ofSeconds(intValue("duration", 60));
+    }
+
+    public long seed() {
+        return Long.parseLong(values.getOrDefault("seed", "42"));
+    }
+
+    /**
+     * Доли операций в смеси: --mix=search:30,item:10,... Не указанные операции не выполняются.
+     */
+    public Map<Operation, Integer> mix() {
+        if (!values.containsKey("mix")) {
+            Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                mix.put(operation, operation.getDefaultWeight());
+            }
+            return mix;
+        }
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : values.get("mix").split(",")) {
+            String[] weight = part.split(":");
+            mix.put(Operation.byKey(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    public Path histogramDir() {
+        return values.containsKey("hgrm-dir") ? Path.of(values.get("hgrm-dir")) : null;
+    }
+
+    private int intValue(String name, int defaultValue) {
+        return Integer.parseInt(values.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+}
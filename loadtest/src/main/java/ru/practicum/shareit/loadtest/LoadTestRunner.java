@@ -0,0 +1,75 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Точка входа loadtest.jar: поднимает server (по умолчанию на H2) и gateway в одной JVM, заполняет базу
+ * синтетическими данными через gateway, прогревает приложения и выполняет смешанную нагрузку с заданным RPS.
+ * В конце печатает пропускную способность и перцентили задержки по эндпоинтам.
+ * Запуск из корня проекта после mvn package:
+ * java -jar loadtest/target/loadtest.jar --rps=200 --duration=60 --users=100 --items=1000
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) {
+        int status = 0;
+        try {
+            run(new LoadTestOptions(args));
+        } catch (Exception e) {
+            e.printStackTrace();
+            status = 1;
+        }
+        // server и gateway работают в потоках этой JVM и сами не остановятся
+        System.exit(status);
+    }
+
+    private static void run(LoadTestOptions options) throws IOException, InterruptedException {
+        int serverPort = freePort();
+        int gatewayPort = freePort();
+
+        List<String> serverArgs = new ArrayList<>(options.serverArgs());
+        serverArgs.add("--server.port=" + serverPort);
+        List<String> gatewayArgs = new ArrayList<>(options.gatewayArgs());
+        gatewayArgs.add("--server.port=" + gatewayPort);
+        gatewayArgs.add("--shareit-server.url=http://localhost:" + serverPort);
+
+        System.out.printf("Starting server on port %d with %s%n", serverPort, serverArgs);
+        EmbeddedApplication.start("server", options.serverJar(), serverArgs);
+        System.out.printf("Starting gateway on port %d with %s%n", gatewayPort, gatewayArgs);
+        EmbeddedApplication.start("gateway", options.gatewayJar(), gatewayArgs);
+
+        ShareItApi api = new ShareItApi("http://localhost:" + gatewayPort);
+        long seedStart = System.nanoTime();
+        Dataset dataset = Dataset.seed(api, options);
+        System.out.printf("Seeded %d users, %d requests, %d items, %d bookings in %d ms%n", options.users(),
+                options.requests(), options.items(), options.bookings(),
+                Duration.ofNanos(System.nanoTime() - seedStart).toMillis());
+
+        VirtualUserScheduler scheduler = new VirtualUserScheduler(api, dataset, options.virtualUsers(), options.rps());
+        if (!options.warmup().isZero()) {
+            System.out.printf("Warming up for %d s%n", options.warmup().toSeconds());
+            scheduler.run(options.mix(), options.warmup(), options.seed());
+        }
+        System.out.printf("Running %s at %.0f rps with %d virtual users for %d s%n", options.mix(), options.rps(),
+                options.virtualUsers(), options.duration().toSeconds());
+        long runStart = System.nanoTime();
+        LatencyReport report = scheduler.run(options.mix(), options.duration(), options.seed() + 1);
+        report.print(System.out, Duration.ofNanos(System.nanoTime() - runStart));
+        if (options.histogramDir() != null) {
+            report.writeHistograms(options.histogramDir());
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
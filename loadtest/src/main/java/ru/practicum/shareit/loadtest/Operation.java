@@ -0,0 +1,104 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Random;
+
+/**
+ * Операции смешанной нагрузки. Операция может состоять из нескольких вызовов: каждый вызов попадает
+ * в отчет под своим эндпоинтом.
+ */
+public enum Operation {
+    SEARCH("search", 30) {
+        @Override
+        void run(Call call, Dataset dataset, Random random) throws IOException, InterruptedException {
+            call.call("GET /items/search", "GET", "/items/search?text="
+                    + Dataset.WORDS[random.nextInt(Dataset.WORDS.length)] + "&from=0&size=" + PAGE_SIZE,
+                    dataset.randomBooker(random), null);
+        }
+    },
+    ITEM("item", 10) {
+        @Override
+        void run(Call call, Dataset dataset, Random random) throws IOException, InterruptedException {
+            call.call("GET /items/{id}", "GET", "/items/" + dataset.randomItem(random),
+                    dataset.randomBooker(random), null);
+        }
+    },
+    OWNER_ITEMS("owner-items", 15) {
+        @Override
+        void run(Call call, Dataset dataset, Random random) throws IOException, InterruptedException {
+            call.call("GET /items", "GET", "/items?from=0&size=" + PAGE_SIZE, dataset.randomOwner(random), null);
+        }
+    },
+    OWNER_BOOKINGS("owner-bookings", 10) {
+        @Override
+        void run(Call call, Dataset dataset, Random random) throws IOException, InterruptedException {
+            call.call("GET /bookings/owner", "GET", "/bookings/owner?state=ALL&from=0&size=" + PAGE_SIZE,
+                    dataset.randomOwner(random), null);
+        }
+    },
+    BOOKING("booking", 10) {
+        @Override
+        void run(Call call, Dataset dataset, Random random) throws IOException, InterruptedException {
+            long item = dataset.randomItem(random);
+            HttpResponse<String> created = call.call("POST /bookings", "POST", "/bookings",
+                    dataset.randomBooker(random), dataset.nextBooking(item));
+            if (ShareItApi.isSuccessful(created)) {
+                long booking = OBJECT_MAPPER.readTree(created.body()).get("id").asLong();
+                call.call("PATCH /bookings/{id}", "PATCH", "/bookings/" + booking + "?approved=true",
+                        dataset.ownerOf(item), null);
+            }
+        }
+    },
+    REQUESTS_ALL("requests-all", 15) {
+        @Override
+        void run(Call call, Dataset dataset, Random random) throws IOException, InterruptedException {
+            call.call("GET /requests/all", "GET", "/requests/all?from=0&size=" + PAGE_SIZE,
+                    dataset.randomBooker(random), null);
+        }
+    },
+    REQUESTS_OWN("requests-own", 10) {
+        @Override
+        void run(Call call, Dataset dataset, Random random) throws IOException, InterruptedException {
+            call.call("GET /requests", "GET", "/requests?from=0&size=" + PAGE_SIZE,
+                    dataset.randomBooker(random), null);
+        }
+    };
+
+    private static final int PAGE_SIZE = 20;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String key;
+    private final int defaultWeight;
+
+    Operation(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    public static Operation byKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+
+    abstract void run(Call call, Dataset dataset, Random random) throws IOException, InterruptedException;
+
+    /**
+     * Вызов эндпоинта с замером задержки
+     */
+    @FunctionalInterface
+    interface Call {
+        HttpResponse<String> call(String endpoint, String method, String path, Long userId, Object body)
+                throws IOException, InterruptedException;
+    }
+}
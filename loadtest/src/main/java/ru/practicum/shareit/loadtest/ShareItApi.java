@@ -0,0 +1,58 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP-клиент к gateway. Тело запроса сериализуется в JSON, даты передаются строками ISO-8601.
+ */
+public class ShareItApi {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+
+    public ShareItApi(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public HttpResponse<String> call(String method, String path, Long userId, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (userId != null) {
+            request.header(HEADER_USER_ID, String.valueOf(userId));
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * POST с проверкой ответа, возвращает id созданной сущности
+     */
+    public long create(String path, Long userId, Object body) throws IOException, InterruptedException {
+        HttpResponse<String> response = call("POST", path, userId, body);
+        if (!isSuccessful(response)) {
+            throw new IllegalStateException("POST " + path + " failed with " + response.statusCode() + ": "
+                    + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    public static boolean isSuccessful(HttpResponse<String> response) {
+        return response.statusCode() / 100 == 2;
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая модель нагрузки: операции стартуют по расписанию с заданным RPS независимо от того,
+ * как быстро отвечает приложение. Расписание обслуживают virtualUsers потоков: поток берет следующий
+ * слот, ждет его времени и выполняет операцию. Если все потоки заняты, слот выполняется с опозданием,
+ * и задержка первого вызова операции считается от запланированного времени, а не от фактического
+ * (поправка на coordinated omission). Поэтому при перегрузке растут перцентили, а не падает нагрузка
+ * незаметно для отчета.
+ */
+public class VirtualUserScheduler {
+    private final ShareItApi api;
+    private final Dataset dataset;
+    private final int virtualUsers;
+    private final double rps;
+
+    public VirtualUserScheduler(ShareItApi api, Dataset dataset, int virtualUsers, double rps) {
+        this.api = api;
+        this.dataset = dataset;
+        this.virtualUsers = virtualUsers;
+        this.rps = rps;
+    }
+
+    public LatencyReport run(Map<Operation, Integer> mix, Duration duration, long seed)
+            throws InterruptedException {
+        List<Operation> schedule = weighted(mix);
+        LatencyReport report = new LatencyReport();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rps);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        AtomicLong nextSlot = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(virtualUsers);
+        List<Future<?>> users = new ArrayList<>();
+        for (int i = 0; i < virtualUsers; i++) {
+            Random random = new Random(seed + i);
+            users.add(executor.submit(() -> {
+                long slot;
+                while ((slot = start + nextSlot.getAndIncrement() * interval) < end) {
+                    long delay = slot - System.nanoTime();
+                    if (delay > 0) {
+                        LockSupport.parkNanos(delay);
+                    }
+                    Operation operation = schedule.get(random.nextInt(schedule.size()));
+                    execute(operation, random, report, slot);
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        for (Future<?> user : users) {
+            try {
+                user.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Virtual user failed", e.getCause());
+            }
+        }
+        return report;
+    }
+
+    private void execute(Operation operation, Random random, LatencyReport report, long slot) {
+        long[] callStart = {slot};
+        Operation.Call call = (endpoint, method, path, userId, body) -> {
+            boolean successful = false;
+            try {
+                HttpResponse<String> response = api.call(method, path, userId, body);
+                successful = ShareItApi.isSuccessful(response);
+                return response;
+            } finally {
+                long now = System.nanoTime();
+                report.record(endpoint, now - callStart[0], successful);
+                callStart[0] = now;
+            }
+        };
+        try {
+            operation.run(call, dataset, random);
+        } catch (IOException e) {
+            // ошибка уже учтена в отчете как неуспешный вызов
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Список операций, в котором каждая повторяется столько раз, каков ее вес
+     */
+    private static List<Operation> weighted(Map<Operation, Integer> mix) {
+        List<Operation> schedule = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(operation);
+            }
+        });
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+        return schedule;
+    }
+}
@@ -2,11 +2,13 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingOutDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.utilitary.OffsetPageRequest;
+import ru.practicum.shareit.utilitary.PageCursor;
 
 import java.util.List;
 
@@ -43,18 +45,24 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingOutDto> getAllBrookingByBookerId(@RequestHeader(HEADER_USER_ID) Long userId,
+    public ResponseEntity<List<BookingOutDto>> getAllBrookingByBookerId(@RequestHeader(HEADER_USER_ID) Long userId,
                                                         @RequestParam(defaultValue = "ALL") String state,
                                                         @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                                        @RequestParam(value = "size", defaultValue = "10") Integer size) {
-        return bookingService.getAllBrookingByBookerId(PageRequest.of(from / size, size), userId, state);
+                                                        @RequestParam(value = "size", defaultValue = "10") Integer size,
+                                                        @RequestParam(value = "after", required = false) String after) {
+        return PageCursor.page(bookingService.getAllBrookingByBookerId(
+                OffsetPageRequest.of(from, size), PageCursor.decodeWithTimestamp(after), userId, state),
+                size, booking -> PageCursor.of(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("owner")
-    public List<BookingOutDto> getAllBookingsForAllItemsByOwnerId(@RequestHeader(HEADER_USER_ID) Long userId,
+    public ResponseEntity<List<BookingOutDto>> getAllBookingsForAllItemsByOwnerId(@RequestHeader(HEADER_USER_ID) Long userId,
                                                                   @RequestParam(defaultValue = "ALL") String state,
                                                                   @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                                                  @RequestParam(value = "size", defaultValue = "10") Integer size) {
-        return bookingService.getAllBookingsForAllItemsByOwnerId(PageRequest.of(from / size, size), userId, state);
+                                                                  @RequestParam(value = "size", defaultValue = "10") Integer size,
+                                                                  @RequestParam(value = "after", required = false) String after) {
+        return PageCursor.page(bookingService.getAllBookingsForAllItemsByOwnerId(
+                OffsetPageRequest.of(from, size), PageCursor.decodeWithTimestamp(after), userId, state),
+                size, booking -> PageCursor.of(booking.getStart(), booking.getId()));
     }
 }
\ No newline at end of file
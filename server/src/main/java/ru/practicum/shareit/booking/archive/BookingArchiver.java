@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Переносит бронирования, завершившиеся более age-days дней назад, из bookings в bookings_archive.
+ * Перенос идет пачками по batch-size строк, каждая пачка - отдельная транзакция; пачки выбираются
+ * по индексу end_date с seek-условием, поэтому длинная история не читается целиком за один запрос.
+ * Бронирования, на которые ссылается items.last_booking_id, остаются в bookings.
+ * Архиватор запускается по расписанию на каждой реплике: в PostgreSQL пачка выбирается с FOR UPDATE SKIP LOCKED,
+ * и строки, которые уже переносит другая реплика, пропускаются, а не копируются в архив второй раз.
+ * H2 (профили test и ci) SKIP LOCKED не поддерживает, там реплика одна.
+ * Архив читается только глубокими страницами истории, см. BookingServiceImpl.getListBookings.
+ */
+
+@Slf4j
+@Component
+public class BookingArchiver {
+    private static final String BATCH = "SELECT b.id, b.end_date FROM bookings AS b " +
+            "WHERE b.end_date < :cutoff " +
+            "AND (b.end_date > :lastEnd OR b.end_date = :lastEnd AND b.id > :lastId) " +
+            "AND NOT EXISTS (SELECT 1 FROM items AS i WHERE i.last_booking_id = b.id) " +
+            "ORDER BY b.end_date, b.id " +
+            "LIMIT :size";
+    private static final String SKIP_LOCKED = " FOR UPDATE OF b SKIP LOCKED";
+    private static final String COPY = "INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings WHERE id IN (:ids)";
+    private static final String DELETE = "DELETE FROM bookings WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String batchQuery;
+    private final int ageDays;
+    private final int batchSize;
+
+    public BookingArchiver(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           DataSource dataSource,
+                           @Value("${shareit.booking.archive.age-days}") int ageDays,
+                           @Value("${shareit.booking.archive.batch-size}") int batchSize)
+            throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.batchQuery = "PostgreSQL".equals(database) ? BATCH + SKIP_LOCKED : BATCH;
+        this.ageDays = ageDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron}")
+    public void archive() {
+        if (ageDays <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(ageDays);
+        ArchivedRow last = new ArchivedRow(0L, Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0)));
+        int archived = 0;
+        List<ArchivedRow> batch;
+        do {
+            ArchivedRow after = last;
+            batch = transactionTemplate.execute(status -> moveBatch(cutoff, after));
+            if (!batch.isEmpty()) {
+                last = batch.get(batch.size() - 1);
+            }
+            archived += batch.size();
+        } while (batch.size() == batchSize);
+        log.info("Bookings archived: {} ended before {}", archived, cutoff);
+    }
+
+    private List<ArchivedRow> moveBatch(LocalDateTime cutoff, ArchivedRow after) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("lastEnd", after.end)
+                .addValue("lastId", after.id)
+                .addValue("size", batchSize);
+        List<ArchivedRow> batch = jdbcTemplate.query(batchQuery, parameters,
+                (rs, rowNum) -> new ArchivedRow(rs.getLong("id"), rs.getTimestamp("end_date")));
+        if (!batch.isEmpty()) {
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids",
+                    batch.stream().map(row -> row.id).collect(Collectors.toList()));
+            jdbcTemplate.update(COPY, ids);
+            jdbcTemplate.update(DELETE, ids);
+        }
+        return batch;
+    }
+
+    /**
+     * Seek-позиция пачки: id и end_date перенесенной строки
+     */
+    @RequiredArgsConstructor
+    private static class ArchivedRow {
+        private final Long id;
+        private final Timestamp end;
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.entity.ArchivedBooking;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.booking.entity.Status;
 import ru.practicum.shareit.item.dto.ItemMapper;
@@ -27,6 +28,17 @@ public class BookingMapper {
         return booking;
     }
 
+    public static Booking fromArchivedBooking(ArchivedBooking archivedBooking) {
+        return Booking.builder()
+                .id(archivedBooking.getId())
+                .start(archivedBooking.getStart())
+                .end(archivedBooking.getEnd())
+                .item(archivedBooking.getItem())
+                .booker(archivedBooking.getBooker())
+                .status(archivedBooking.getStatus())
+                .build();
+    }
+
     public static BookingOutDto toBookingDto(Booking booking) {
         BookingOutDto bookingOutDto = BookingOutDto.builder()
                 .id(booking.getId())
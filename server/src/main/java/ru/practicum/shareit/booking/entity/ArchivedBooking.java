@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking.entity;
+
+import lombok.*;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.user.entity.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Завершенное бронирование, перенесенное BookingArchiver из bookings в bookings_archive.
+ * Сохраняет id исходной строки, поэтому ссылки на бронирование остаются действительными.
+ */
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@NamedEntityGraph(name = ArchivedBooking.DETAILS, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
+@Table(name = "bookings_archive", schema = "public")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ArchivedBooking {
+    public static final String DETAILS = "ArchivedBooking.details";
+
+    @Id
+    @EqualsAndHashCode.Include
+    private Long id;
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime start;
+    @Column(name = "end_date")
+    private LocalDateTime end;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id", nullable = false)
+    private User booker;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+}
@@ -13,9 +13,18 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@NamedEntityGraph(name = Booking.DETAILS, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 @Table(name = "bookings", schema = "public")
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Booking {
+    /**
+     * Граф загрузки для BookingMapper.toBookingDto: вещь и арендатор одним запросом с бронированием
+     */
+    public static final String DETAILS = "Booking.details";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @EqualsAndHashCode.Include
@@ -33,4 +42,9 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private Status status;
+    /**
+     * Время последнего create/confirm через BookingServiceImpl, по нему BookingIntervalIndex догоняет другие реплики
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
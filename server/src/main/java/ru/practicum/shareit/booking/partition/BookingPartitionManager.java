@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.service.ItemCardCache;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+
+/**
+ * Обслуживает помесячные секции bookings (см. schema-postgresql.sql): при старте и по расписанию
+ * создает секции на months-ahead месяцев вперед и отсоединяет секции старше retention-months.
+ * На других СУБД bookings не секционирована и компонент ничего не делает.
+ */
+
+@Slf4j
+@Component
+public class BookingPartitionManager {
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemCardCache itemCardCache;
+    private final boolean partitioned;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public BookingPartitionManager(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                   EntityManagerFactory entityManagerFactory, ItemCardCache itemCardCache,
+                                   @Value("${shareit.booking.partitions.months-ahead}") int monthsAhead,
+                                   @Value("${shareit.booking.partitions.retention-months}") int retentionMonths)
+            throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.itemCardCache = itemCardCache;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.partitioned = "PostgreSQL".equals(database);
+    }
+
+    @PostConstruct
+    @Scheduled(cron = "${shareit.booking.partitions.cron}")
+    public void maintain() {
+        if (!partitioned) {
+            return;
+        }
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT create_bookings_partition(?)",
+                    Boolean.class, month.plusMonths(i)))) {
+                created++;
+            }
+        }
+        int detached = 0;
+        if (retentionMonths > 0) {
+            detached = jdbcTemplate.queryForObject("SELECT detach_bookings_partitions(?)",
+                    Integer.class, month.minusMonths(retentionMonths).atStartOfDay());
+        }
+        if (detached > 0) {
+            // detach_bookings_partitions обнуляет items.last_booking_id мимо Hibernate
+            entityManagerFactory.getCache().evict(Item.class);
+            itemCardCache.evictAll();
+        }
+        log.info("Booking partitions maintained: {} created, {} detached", created, detached);
+    }
+}
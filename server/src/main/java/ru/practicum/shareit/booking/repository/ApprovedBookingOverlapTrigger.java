@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.h2.tools.TriggerAdapter;
+import ru.practicum.shareit.booking.entity.Status;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Замена exclusion constraint ex_bookings_approved_overlap для H2 (профили ci,test, см. schema-h2.sql):
+ * запрещает пересекающиеся подтвержденные бронирования одной вещи с тем же SQLState 23P01, что и PostgreSQL
+ */
+
+public class ApprovedBookingOverlapTrigger extends TriggerAdapter {
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private static final String OVERLAP_QUERY = "SELECT id FROM bookings " +
+            "WHERE item_id = ? AND status = ? AND id <> ? " +
+            "AND (? IS NULL OR start_date < ?) " +
+            "AND (end_date IS NULL OR end_date > ?)";
+
+    @Override
+    public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        if (newRow == null || !Status.APPROVED.name().equals(newRow.getString("status"))) {
+            return;
+        }
+        long id = newRow.getObject("id") == null ? -1 : newRow.getLong("id");
+        Timestamp start = newRow.getTimestamp("start_date");
+        Timestamp end = newRow.getTimestamp("end_date");
+        try (PreparedStatement statement = connection.prepareStatement(OVERLAP_QUERY)) {
+            statement.setLong(1, newRow.getLong("item_id"));
+            statement.setString(2, Status.APPROVED.name());
+            statement.setLong(3, id);
+            statement.setTimestamp(4, end);
+            statement.setTimestamp(5, end);
+            statement.setTimestamp(6, start);
+            try (ResultSet conflicts = statement.executeQuery()) {
+                if (conflicts.next()) {
+                    throw new SQLException("conflicting key value violates exclusion constraint " +
+                            "\"ex_bookings_approved_overlap\" with booking " + conflicts.getLong(1), EXCLUSION_VIOLATION);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.entity.ArchivedBooking;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface BookingArchiveRepository extends JpaRepository<ArchivedBooking, Long>, BookingQueryRepository {
+    @EntityGraph(ArchivedBooking.DETAILS)
+    Optional<ArchivedBooking> findWithDetailsById(Long id);
+
+    Boolean existsByBookerIdAndItemId(Long bookerId, Long itemId);
+
+    /**
+     * Самое позднее начало среди архивных бронирований: более поздние записи есть только в bookings
+     */
+    @Query("select max(b.start) from ArchivedBooking b")
+    Optional<LocalDateTime> findHorizon();
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.entity.ArchivedBooking;
+import ru.practicum.shareit.booking.entity.Booking;
+
+import java.util.List;
+
+public interface BookingQueryRepository {
+
+    /**
+     * Страница бронирований по спецификации без дополнительного count-запроса
+     */
+    List<Booking> findSlice(Specification<Booking> specification, Pageable pageable);
+
+    /**
+     * То же для bookings_archive
+     */
+    List<ArchivedBooking> findArchivedSlice(Specification<ArchivedBooking> specification, Pageable pageable);
+}
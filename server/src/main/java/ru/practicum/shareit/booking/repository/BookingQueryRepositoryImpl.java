@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.entity.ArchivedBooking;
+import ru.practicum.shareit.booking.entity.Booking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+@RequiredArgsConstructor
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Booking> findSlice(Specification<Booking> specification, Pageable pageable) {
+        return findSlice(Booking.class, specification, pageable);
+    }
+
+    @Override
+    public List<ArchivedBooking> findArchivedSlice(Specification<ArchivedBooking> specification, Pageable pageable) {
+        return findSlice(ArchivedBooking.class, specification, pageable);
+    }
+
+    private <T> List<T> findSlice(Class<T> type, Specification<T> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        // вещь и арендатор нужны BookingMapper.toBookingDto для каждой строки страницы
+        root.fetch("item");
+        root.fetch("booker");
+        query.select(root)
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(toOrders(pageable.getSort(), root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.entity.State;
+import ru.practicum.shareit.booking.entity.Status;
+import ru.practicum.shareit.exception.IncorrectStatusException;
+import ru.practicum.shareit.utilitary.PageCursor;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки бронирований. Типизированы по сущности, чтобы одни и те же условия
+ * применялись и к bookings (Booking), и к bookings_archive (ArchivedBooking) с теми же атрибутами.
+ */
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookingSpecifications {
+
+    public static <T> Specification<T> byBooker(Long bookerId) {
+        return (root, query, cb) -> cb.equal(root.get("booker").get("id"), bookerId);
+    }
+
+    public static <T> Specification<T> byItemOwner(Long ownerId) {
+        return (root, query, cb) -> cb.equal(item(root).get("user").get("id"), ownerId);
+    }
+
+    public static <T> Specification<T> inState(State state, LocalDateTime now) {
+        switch (state) {
+            case ALL:
+                return (root, query, cb) -> cb.conjunction();
+            case CURRENT:
+                return (root, query, cb) -> cb.and(
+                        cb.lessThan(root.get("start"), now),
+                        cb.greaterThan(root.get("end"), now));
+            case PAST:
+                // start < end, условие по start лишь позволяет PostgreSQL отсечь будущие секции bookings
+                return (root, query, cb) -> cb.and(
+                        cb.lessThan(root.get("start"), now),
+                        cb.lessThan(root.get("end"), now));
+            case FUTURE:
+                return (root, query, cb) -> cb.greaterThan(root.get("start"), now);
+            case WAITING:
+                return (root, query, cb) -> cb.equal(root.get("status"), Status.WAITING);
+            case REJECTED:
+                return (root, query, cb) -> cb.equal(root.get("status"), Status.REJECTED);
+            default:
+                throw new IncorrectStatusException("Unknown state: " + state);
+        }
+    }
+
+    /**
+     * Бронирования, начавшиеся строго после момента: в сортировке start desc они идут раньше
+     */
+    public static <T> Specification<T> startedAfter(LocalDateTime moment) {
+        return (root, query, cb) -> cb.greaterThan(root.get("start"), moment);
+    }
+
+    /**
+     * Seek-условие для сортировки start desc, id desc: записи строго после курсора
+     */
+    public static <T> Specification<T> after(PageCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("start"), cursor.getTimestamp()),
+                cb.and(
+                        cb.equal(root.get("start"), cursor.getTimestamp()),
+                        cb.lessThan(root.get("id"), cursor.getId())));
+    }
+
+    /**
+     * Соединение с items: fetch join из findSlice переиспользуется, чтобы не соединять items дважды
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Join<T, ?> item(Root<T> root) {
+        return root.getFetches().stream()
+                .filter(fetch -> "item".equals(fetch.getAttribute().getName()))
+                .map(fetch -> (Join<T, ?>) fetch)
+                .findFirst()
+                .orElseGet(() -> root.join("item"));
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Полуинтервал [start, end) бронирования
+ */
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class BookingInterval {
+    @EqualsAndHashCode.Include
+    private final Long bookingId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && otherStart.isBefore(end);
+    }
+}
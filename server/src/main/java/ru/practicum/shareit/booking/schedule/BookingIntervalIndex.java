@@ -0,0 +1,243 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingConflictException;
+
+import javax.annotation.PostConstruct;
+import javax.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Индекс интервалов актуальных (не закончившихся) бронирований по вещам.
+ * Загружается из bookings при старте и обновляется при создании и подтверждении бронирований этой реплики.
+ * Изменения других реплик догоняются по расписанию (refresh): пока проход не прошел, свободный по индексу
+ * слот может быть уже занят, но не дольше refresh-interval плюс время прохода. Пересечение подтвержденных
+ * бронирований все равно отклоняет база (exclusion constraint), индекс - только быстрая предпроверка.
+ * Проверка пересечения и резервирование интервала выполняются под блокировкой вещи из фиксированного
+ * набора (striped lock), так что бронирования разных вещей не ждут друг друга, а в БД пишется уже
+ * проверенное бронирование.
+ */
+
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+    private static final int STRIPES = 64;
+    private static final int BATCH_SIZE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final Duration refreshOverlap;
+
+    private final Map<Long, ItemSchedule> schedules = new ConcurrentHashMap<>();
+    private final Lock[] locks = new Lock[STRIPES];
+
+    /**
+     * Начало предыдущего прохода load/refresh
+     */
+    private LocalDateTime refreshedAt;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.intervals.refresh-overlap}") Duration refreshOverlap) {
+        this.bookingRepository = bookingRepository;
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    @PostConstruct
+    public void load() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        refreshedAt = LocalDateTime.now();
+        List<Booking> bookings = bookingRepository.findAllByStatusInAndEndIsAfter(
+                List.of(Status.WAITING, Status.APPROVED), LocalDateTime.now());
+        for (Booking booking : bookings) {
+            ItemSchedule schedule = schedules.computeIfAbsent(booking.getItem().getId(), id -> new ItemSchedule());
+            if (booking.getStatus() == Status.APPROVED) {
+                schedule.addApproved(toInterval(booking));
+            } else {
+                schedule.addWaiting(toInterval(booking));
+            }
+        }
+        log.info("Booking interval index loaded: {} bookings for {} items", bookings.size(), schedules.size());
+    }
+
+    /**
+     * Перечитывает бронирования с bookings.updated_at позже предыдущего прохода минус refresh-overlap,
+     * как ItemSearchIndex.refresh. refresh-overlap покрывает транзакции, зафиксированные позже своего updated_at.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${shareit.booking.intervals.refresh-interval}")
+    public void refresh() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = refreshedAt.minus(refreshOverlap);
+        long lastId = 0;
+        int changed = 0;
+        List<Booking> batch;
+        do {
+            batch = bookingRepository.findByUpdatedAtAfterAndIdGreaterThanOrderById(since, lastId,
+                    PageRequest.of(0, BATCH_SIZE));
+            batch.forEach(this::sync);
+            changed += batch.size();
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        refreshedAt = startedAt;
+        log.debug("Booking interval index refreshed: {} changed bookings", changed);
+    }
+
+    /**
+     * Приводит интервал к состоянию строки. Подтвержденный интервал не понижается до ожидающего:
+     * WAITING бывает только у нового бронирования, и такая строка - еще не зафиксированное подтверждение
+     * этой реплики, которое approve уже зарезервировал
+     */
+    private void sync(Booking booking) {
+        withSchedule(booking.getItem().getId(), schedule -> {
+            if (!booking.getEnd().isAfter(LocalDateTime.now())) {
+                schedule.remove(booking.getId());
+            } else if (booking.getStatus() == Status.APPROVED) {
+                schedule.addApproved(toInterval(booking));
+            } else if (booking.getStatus() == Status.WAITING) {
+                if (!schedule.isApproved(booking.getId())) {
+                    schedule.addWaiting(toInterval(booking));
+                }
+            } else {
+                schedule.remove(booking.getId());
+            }
+        });
+    }
+
+    /**
+     * Проверяет, что интервал не пересекается с подтвержденными бронированиями вещи
+     */
+    public void checkAvailable(Long itemId, LocalDateTime start, LocalDateTime end) {
+        withSchedule(itemId, schedule -> {
+            schedule.findApprovedOverlap(start, end).ifPresent(conflict -> {
+                throw new BookingConflictException(itemId, conflict.getBookingId());
+            });
+        });
+    }
+
+    /**
+     * Регистрирует новое ожидающее бронирование после фиксации транзакции
+     */
+    public void addWaiting(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        afterCommit(() -> withSchedule(itemId, schedule -> {
+            schedule.addWaiting(toInterval(booking));
+        }));
+    }
+
+    /**
+     * Атомарно проверяет пересечение и резервирует интервал за подтверждаемым бронированием.
+     * Вызывается до смены статуса; при откате транзакции бронирование возвращается в прежнее состояние.
+     */
+    public void approve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        BookingInterval interval = toInterval(booking);
+        boolean wasWaiting = booking.getStatus() == Status.WAITING;
+        withSchedule(itemId, schedule -> {
+            schedule.findApprovedOverlap(interval.getStart(), interval.getEnd()).ifPresent(conflict -> {
+                throw new BookingConflictException(itemId, conflict.getBookingId());
+            });
+            schedule.addApproved(interval);
+        });
+        onRollback(() -> withSchedule(itemId, schedule -> {
+            if (wasWaiting) {
+                schedule.addWaiting(interval);
+            } else {
+                schedule.remove(interval.getBookingId());
+            }
+        }));
+    }
+
+    public void reject(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        afterCommit(() -> withSchedule(itemId, schedule -> {
+            schedule.remove(booking.getId());
+        }));
+    }
+
+    /**
+     * Свободные промежутки вещи в окне [from, to); прошедшее время свободным не считается
+     */
+    public List<TimeSlot> findFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        if (!start.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        return applyToSchedule(itemId, schedule -> schedule.freeSlots(start, to));
+    }
+
+    private void withSchedule(Long itemId, Consumer<ItemSchedule> action) {
+        applyToSchedule(itemId, schedule -> {
+            action.accept(schedule);
+            return null;
+        });
+    }
+
+    private <T> T applyToSchedule(Long itemId, Function<ItemSchedule, T> action) {
+        Lock lock = locks[Math.floorMod(Long.hashCode(itemId) * 0x9E3779B9, STRIPES)];
+        lock.lock();
+        try {
+            ItemSchedule schedule = schedules.computeIfAbsent(itemId, id -> new ItemSchedule());
+            schedule.prune(LocalDateTime.now());
+            T result = action.apply(schedule);
+            if (schedule.isEmpty()) {
+                schedules.remove(itemId);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static BookingInterval toInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking.schedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Расписание одной вещи: подтвержденные бронирования не пересекаются и хранятся по (start, bookingId),
+ * поэтому пересечение с новым интервалом проверяется одним floor-поиском за O(log n). id в ключе
+ * нужен для интервалов с одинаковым началом: пустых и пересекающихся строк, загруженных из базы.
+ * Ожидающие подтверждения могут пересекаться между собой и хранятся отдельно.
+ * Не потокобезопасен, доступ синхронизирует BookingIntervalIndex.
+ */
+
+class ItemSchedule {
+    private static final Comparator<BookingInterval> BY_START = Comparator.comparing(BookingInterval::getStart)
+            .thenComparing(BookingInterval::getBookingId);
+
+    private final NavigableSet<BookingInterval> approved = new TreeSet<>(BY_START);
+    private final NavigableSet<BookingInterval> waiting = new TreeSet<>(BY_START);
+    private final Map<Long, BookingInterval> byId = new HashMap<>();
+
+    Optional<BookingInterval> findApprovedOverlap(LocalDateTime start, LocalDateTime end) {
+        BookingInterval previous = lastApprovedBefore(end);
+        if (previous != null && previous.overlaps(start, end)) {
+            return Optional.of(previous);
+        }
+        return Optional.empty();
+    }
+
+    void addApproved(BookingInterval interval) {
+        remove(interval.getBookingId());
+        approved.add(interval);
+        byId.put(interval.getBookingId(), interval);
+    }
+
+    void addWaiting(BookingInterval interval) {
+        remove(interval.getBookingId());
+        waiting.add(interval);
+        byId.put(interval.getBookingId(), interval);
+    }
+
+    boolean isApproved(Long bookingId) {
+        BookingInterval interval = byId.get(bookingId);
+        return interval != null && approved.contains(interval);
+    }
+
+    void remove(Long bookingId) {
+        BookingInterval interval = byId.remove(bookingId);
+        if (interval == null) {
+            return;
+        }
+        if (!waiting.remove(interval)) {
+            approved.remove(interval);
+        }
+    }
+
+    /**
+     * Промежутки [from, to), не занятые подтвержденными и ожидающими бронированиями
+     */
+    List<TimeSlot> freeSlots(LocalDateTime from, LocalDateTime to) {
+        List<BookingInterval> busy = new ArrayList<>();
+        BookingInterval first = lastApprovedBefore(from);
+        if (first != null && first.overlaps(from, to)) {
+            busy.add(first);
+        }
+        busy.addAll(approved.subSet(before(from), true, before(to), false));
+        for (BookingInterval interval : waiting.headSet(before(to), false)) {
+            if (interval.overlaps(from, to)) {
+                busy.add(interval);
+            }
+        }
+        busy.sort(BY_START);
+
+        List<TimeSlot> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (BookingInterval interval : busy) {
+            if (interval.getStart().isAfter(cursor)) {
+                free.add(new TimeSlot(cursor, interval.getStart()));
+            }
+            if (interval.getEnd().isAfter(cursor)) {
+                cursor = interval.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new TimeSlot(cursor, to));
+        }
+        return free;
+    }
+
+    /**
+     * Удаляет закончившиеся к моменту now интервалы
+     */
+    void prune(LocalDateTime now) {
+        approved.headSet(new BookingInterval(Long.MAX_VALUE, now, now), true)
+                .removeIf(interval -> !interval.getEnd().isAfter(now) && byId.remove(interval.getBookingId()) != null);
+        waiting.headSet(new BookingInterval(Long.MAX_VALUE, now, now), true)
+                .removeIf(interval -> !interval.getEnd().isAfter(now) && byId.remove(interval.getBookingId()) != null);
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    /**
+     * Последний непустой подтвержденный интервал, начавшийся раньше time. Пустые интервалы ничего
+     * не занимают и пропускаются, иначе пустой интервал заслонил бы предыдущий
+     */
+    private BookingInterval lastApprovedBefore(LocalDateTime time) {
+        for (BookingInterval interval : approved.headSet(before(time), false).descendingSet()) {
+            if (interval.getStart().isBefore(interval.getEnd())) {
+                return interval;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ключ перед всеми интервалами, начинающимися в момент time
+     */
+    private static BookingInterval before(LocalDateTime time) {
+        return new BookingInterval(Long.MIN_VALUE, time, time);
+    }
+}
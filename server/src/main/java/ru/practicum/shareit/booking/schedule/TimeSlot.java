@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Свободный промежуток [start, end) в расписании вещи
+ */
+
+@Value
+public class TimeSlot {
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR: выборка страницы бронирований по состоянию (BookingServiceImpl.getListBookings).
+ * Длительность - от разбора state до готового списка DTO, включая чтение архива.
+ */
+
+@Name("ru.practicum.shareit.BookingQuery")
+@Label("Booking Query")
+@Category({"ShareIt", "Booking"})
+@Description("Страница бронирований пользователя или владельца по состоянию")
+@StackTrace(false)
+class BookingQueryEvent extends Event {
+    @Label("State")
+    String state;
+
+    @Label("Owner")
+    @Description("true - бронирования вещей владельца, false - бронирования арендатора")
+    boolean owner;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Keyset")
+    @Description("Страница по курсору after, а не по смещению from")
+    boolean keyset;
+
+    @Label("Page Size")
+    int size;
+
+    @Label("Archive")
+    @Description("Страница потребовала чтения архива")
+    boolean archive;
+
+    @Label("Rows")
+    int rows;
+}
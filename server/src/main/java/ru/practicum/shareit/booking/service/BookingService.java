@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.service;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingOutDto;
+import ru.practicum.shareit.utilitary.PageCursor;
 
 import java.util.List;
 
@@ -13,7 +14,7 @@ public interface BookingService {
 
     BookingOutDto getBookingByIdAndBookerId(Long userId, Long bookingId);
 
-    List<BookingOutDto> getAllBrookingByBookerId(Pageable pageable, Long userId, String state);
+    List<BookingOutDto> getAllBrookingByBookerId(Pageable pageable, PageCursor after, Long userId, String state);
 
-    List<BookingOutDto> getAllBookingsForAllItemsByOwnerId(Pageable pageable, Long userId, String state);
+    List<BookingOutDto> getAllBookingsForAllItemsByOwnerId(Pageable pageable, PageCursor after, Long userId, String state);
 }
@@ -1,37 +1,66 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutDto;
+import ru.practicum.shareit.booking.entity.ArchivedBooking;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.booking.entity.State;
 import ru.practicum.shareit.booking.entity.Status;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSpecifications;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCardCache;
 import ru.practicum.shareit.user.entity.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+import ru.practicum.shareit.utilitary.OffsetPageRequest;
+import ru.practicum.shareit.utilitary.PageCursor;
 
 import javax.transaction.Transactional;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.dto.BookingMapper.toBookingDto;
+import static org.springframework.data.jpa.domain.Specification.not;
 import static ru.practicum.shareit.booking.dto.BookingMapper.toBookingDtoList;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.byBooker;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.byItemOwner;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.inState;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.startedAfter;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final Sort SEEK_SORT = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final Comparator<Booking> SEEK_ORDER =
+            Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed();
+    private static final String EXCLUSION_VIOLATION = "23P01";
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingPointers itemBookingPointers;
+    private final ItemCardCache itemCardCache;
 
     @Override
     @Transactional
@@ -49,11 +78,14 @@ public class BookingServiceImpl implements BookingService {
         if (!item.getAvailable()) {
             throw new IncorrectBookingException("Item " + item.getId() + " is booked");
         }
-        if (booking.getStart().isAfter(booking.getEnd())) {
-            throw new IncorrectBookingException("Start cannot be later than end");
+        if (!booking.getStart().isBefore(booking.getEnd())) {
+            throw new IncorrectBookingException("Start must be earlier than end");
         }
+        bookingIntervalIndex.checkAvailable(item.getId(), booking.getStart(), booking.getEnd());
         booking.setStatus(Status.WAITING);
+        booking.setUpdatedAt(LocalDateTime.now());
         bookingRepository.save(booking);
+        bookingIntervalIndex.addWaiting(booking);
         return toBookingDto(booking);
     }
 
@@ -61,7 +93,7 @@ public class BookingServiceImpl implements BookingService {
     @Transactional
     public BookingOutDto confirmationBooking(Long userId, Long bookingId, Boolean approved) {
 
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithDetailsById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException(bookingId));
 
         if (!Objects.equals(booking.getItem().getUser().getId(), userId)) {
@@ -72,34 +104,50 @@ public class BookingServiceImpl implements BookingService {
             if (booking.getStatus().equals(Status.APPROVED)) {
                 throw new IncorrectBookingException("Status is Approved");
             }
+            bookingIntervalIndex.approve(booking);
             booking.setStatus(Status.APPROVED);
         } else {
+            bookingIntervalIndex.reject(booking);
             booking.setStatus(Status.REJECTED);
         }
-        bookingRepository.save(booking);
+        booking.setUpdatedAt(LocalDateTime.now());
+        try {
+            bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new BookingConflictException(booking.getItem().getId());
+            }
+            throw e;
+        }
+        if (approved) {
+            itemBookingPointers.approved(booking, LocalDateTime.now());
+        } else {
+            itemBookingPointers.rejected(booking, LocalDateTime.now());
+        }
+        itemCardCache.evict(booking.getItem().getId());
         return toBookingDto(booking);
     }
 
     @Override
     @Transactional
-    public List<BookingOutDto> getAllBrookingByBookerId(Pageable pageable, Long userId, String state) {
-        if (!userRepository.existsById(userId)) {
+    public List<BookingOutDto> getAllBrookingByBookerId(Pageable pageable, PageCursor after, Long userId, String state) {
+        if (!userCache.existsById(userId)) {
             throw new UserNotFoundException(userId);
         } else {
-            return getListBookings(pageable, state, userId, false);
+            return getListBookings(pageable, after, state, userId, false);
         }
     }
 
     @Override
     @Transactional
-    public List<BookingOutDto> getAllBookingsForAllItemsByOwnerId(Pageable pageable, Long userId, String state) {
-        if (!userRepository.existsById(userId)) {
+    public List<BookingOutDto> getAllBookingsForAllItemsByOwnerId(Pageable pageable, PageCursor after, Long userId, String state) {
+        if (!userCache.existsById(userId)) {
             throw new ItemNotFoundException(String.format("User with id=%s not exist", userId));
         }
         if (!itemRepository.existsItemByUserId(userId)) {
             throw new UserNotFoundException(userId);
         } else {
-            return getListBookings(pageable, state, userId, true);
+            return getListBookings(pageable, after, state, userId, true);
         }
     }
 
@@ -116,63 +164,108 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private List<BookingOutDto> getListBookings(Pageable pageable, String state, Long userId, Boolean isOwner) {
-        List<Long> itemsId = itemRepository.findAllItemIdByOwnerId(userId);
-        switch (State.getEnumValue(state.toUpperCase())) {
-            case ALL:
-                if (isOwner) {
-                    return toBookingDtoList(bookingRepository.findAllByItemIdInOrderByStartDesc(pageable, itemsId));
-                } else {
-                    return toBookingDtoList(bookingRepository.findAllByBookerIdOrderByStartDesc(pageable, userId));
-                }
-            case CURRENT:
-                if (isOwner) {
-                    return toBookingDtoList(bookingRepository.findAllByItemIdInAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-                                            pageable, itemsId, LocalDateTime.now(), LocalDateTime.now()));
-                } else {
-                    return toBookingDtoList(bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-                                            pageable, userId, LocalDateTime.now(), LocalDateTime.now()));
-                }
-            case PAST:
-                if (isOwner) {
-                    return toBookingDtoList(bookingRepository
-                                    .findAllByItemIdInAndEndIsBeforeOrderByStartDesc(
-                                            pageable, itemsId, LocalDateTime.now()));
-                } else {
-                    return toBookingDtoList(bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(
-                                            pageable, userId, LocalDateTime.now()));
-                }
-            case FUTURE:
-                if (isOwner) {
-                    return toBookingDtoList(bookingRepository
-                                    .findAllByItemIdInAndStartIsAfterOrderByStartDesc(pageable, itemsId, LocalDateTime.now()));
-                } else {
-                    return toBookingDtoList(bookingRepository
-                                    .findAllByBookerIdAndStartIsAfterOrderByStartDesc(pageable, userId, LocalDateTime.now()));
-                }
-            case WAITING:
-                if (isOwner) {
-                    return toBookingDtoList(bookingRepository
-                                    .findAllByItemIdInAndStatusIsOrderByStartDesc(pageable, itemsId, Status.WAITING));
-                } else {
-                    return toBookingDtoList(bookingRepository
-                                    .findAllByBookerIdAndStatusIsOrderByStartDesc(pageable, userId, Status.WAITING));
-                }
-            case REJECTED:
-                if (isOwner) {
-                    return toBookingDtoList(bookingRepository
-                                    .findAllByItemIdInAndStatusIsOrderByStartDesc(pageable, itemsId, Status.REJECTED));
-                } else {
-                    return toBookingDtoList(bookingRepository
-                                    .findAllByBookerIdAndStatusIsOrderByStartDesc(pageable, userId, Status.REJECTED));
-                }
-            default:
-                throw new IncorrectStatusException("Unknown state: " + state);
+    private List<BookingOutDto> getListBookings(Pageable pageable, PageCursor after, String state, Long userId, Boolean isOwner) {
+        State bookingState = State.getEnumValue(state.toUpperCase());
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        List<BookingOutDto> bookings = findBookings(pageable, after, bookingState, userId, isOwner, event);
+        if (event.shouldCommit()) {
+            event.state = bookingState.name();
+            event.owner = isOwner;
+            event.userId = userId;
+            event.keyset = after != null;
+            event.size = pageable.getPageSize();
+            event.rows = bookings.size();
+            event.commit();
+        }
+        return bookings;
+    }
+
+    private List<BookingOutDto> findBookings(Pageable pageable, PageCursor after, State bookingState, Long userId,
+                                             boolean isOwner, BookingQueryEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        int size = pageable.getPageSize();
+        List<Booking> bookings = bookingRepository.findSlice(filter(bookingState, now, userId, isOwner, after),
+                after == null ? OffsetPageRequest.of((int) pageable.getOffset(), size, SEEK_SORT)
+                        : PageRequest.of(0, size, SEEK_SORT));
+        if (bookingState == State.CURRENT || bookingState == State.FUTURE) {
+            return toBookingDtoList(bookings);
+        }
+
+        // в архиве только завершенные бронирования, начавшиеся не позже horizon: пока страница
+        // заполнена записями правее этой границы, архив не читается
+        Optional<LocalDateTime> horizon = bookingArchiveRepository.findHorizon();
+        if (horizon.isEmpty() || bookings.size() == size
+                && bookings.get(size - 1).getStart().isAfter(horizon.get())) {
+            return toBookingDtoList(bookings);
+        }
+        event.archive = true;
+        if (after != null) {
+            return toBookingDtoList(merge(bookings, findArchived(filter(bookingState, now, userId, isOwner, after), size),
+                    0, size));
+        }
+
+        // страница по смещению: сначала идут head горячих записей правее horizon, дальше -
+        // горячие и архивные записи вперемешку, их приходится сливать с начала хвоста.
+        // Хвост и в bookings, и в архиве ограничен horizon: запись правее horizon, перенесенная
+        // в архив уже после чтения горячей страницы, есть в head и второй раз не берется
+        int from = (int) pageable.getOffset();
+        Specification<Booking> specification = filter(bookingState, now, userId, isOwner, null);
+        int head = (int) bookingRepository.count(specification.and(startedAfter(horizon.get())));
+        int skip = Math.max(0, from - head);
+        int limit = skip + size - Math.max(0, head - from);
+        List<Booking> result = bookings.stream()
+                .filter(booking -> booking.getStart().isAfter(horizon.get()))
+                .collect(Collectors.toList());
+        List<Booking> hotTail = bookingRepository.findSlice(specification.and(not(startedAfter(horizon.get()))),
+                PageRequest.of(0, limit, SEEK_SORT));
+        List<Booking> archivedTail = findArchived(BookingServiceImpl.<ArchivedBooking>filter(bookingState, now, userId,
+                isOwner, null).and(not(startedAfter(horizon.get()))), limit);
+        result.addAll(merge(hotTail, archivedTail, skip, limit - skip));
+        return toBookingDtoList(result);
+    }
+
+    private List<Booking> findArchived(Specification<ArchivedBooking> specification, int size) {
+        return bookingArchiveRepository.findArchivedSlice(specification, PageRequest.of(0, size, SEEK_SORT)).stream()
+                .map(BookingMapper::fromArchivedBooking)
+                .collect(Collectors.toList());
+    }
+
+    private static <T> Specification<T> filter(State state, LocalDateTime now, Long userId, boolean isOwner,
+                                               PageCursor after) {
+        Specification<T> specification = isOwner ? byItemOwner(userId) : byBooker(userId);
+        specification = specification.and(inState(state, now));
+        return after == null ? specification : specification.and(BookingSpecifications.after(after));
+    }
+
+    /**
+     * Слияние двух списков в порядке start desc, id desc; запись, перенесенная в архив между
+     * двумя запросами, может попасть в оба списка и берется один раз
+     */
+    private static List<Booking> merge(List<Booking> hot, List<Booking> archived, int skip, int limit) {
+        return Stream.concat(hot.stream(), archived.stream())
+                .distinct()
+                .sorted(SEEK_ORDER)
+                .skip(skip)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Нарушение ex_bookings_approved_overlap (ex_booking_slots_overlap в PostgreSQL): пересечение с подтвержденным бронированием другой реплики
+     */
+    private static boolean isExclusionViolation(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException
+                    && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
         }
+        return false;
     }
 
     private User getUserById(Long userId) {
-        return userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        return userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
     }
 
     private Item getItemById(Long itemId) {
@@ -180,6 +273,8 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private Booking getBookingById(Long bookingId) {
-        return bookingRepository.findById(bookingId).orElseThrow(() -> new BookingNotFoundException(bookingId));
+        return bookingRepository.findWithDetailsById(bookingId)
+                .or(() -> bookingArchiveRepository.findWithDetailsById(bookingId).map(BookingMapper::fromArchivedBooking))
+                .orElseThrow(() -> new BookingNotFoundException(bookingId));
     }
 }
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поддерживает items.last_booking_id/next_booking_id - последнее начавшееся и ближайшее будущее
+ * подтвержденное бронирование вещи. Указатели обновляются при подтверждении/отклонении бронирования
+ * и сдвигаются по расписанию, когда начинается бронирование, на которое указывает next_booking_id.
+ * Указатели всегда пересчитываются по базе под блокировкой строки вещи (PESSIMISTIC_WRITE): у Item нет
+ * @Version, и без блокировки транзакция, зафиксированная последней, записала бы указатели, посчитанные
+ * без бронирования, подтвержденного параллельно.
+ */
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingPointers {
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Граница предыдущего сдвига: следующий сдвиг проверяет только бронирования, начавшиеся после нее.
+     * Первый запуск после старта проверяет всю историю.
+     */
+    private LocalDateTime lastRollover = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Вызывается после сохранения нового статуса бронирования, чтобы выборки refresh его увидели
+     */
+    public void approved(Booking booking, LocalDateTime now) {
+        refresh(booking.getItem(), now);
+    }
+
+    public void rejected(Booking booking, LocalDateTime now) {
+        refresh(booking.getItem(), now);
+    }
+
+    /**
+     * Указатели вещи устарели, если ее next_booking уже начался
+     */
+    public boolean isStale(Item item, LocalDateTime now) {
+        return item.getNextBooking() != null && !item.getNextBooking().getStart().isAfter(now);
+    }
+
+    /**
+     * Перечитывает вещь с блокировкой строки до конца транзакции и пересчитывает указатели. Параллельное
+     * подтверждение той же вещи ждет блокировку, а после нее видит зафиксированное бронирование.
+     * Перечитывается вся строка: при записи изменений Hibernate пишет ее целиком
+     */
+    public void refresh(Item item, LocalDateTime now) {
+        entityManager.refresh(item, LockModeType.PESSIMISTIC_WRITE);
+        item.setLastBooking(bookingRepository
+                .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(), Status.APPROVED, now)
+                .orElse(null));
+        item.setNextBooking(bookingRepository
+                .findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(item.getId(), Status.APPROVED, now)
+                .orElse(null));
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${shareit.booking.pointers.rollover-interval}")
+    public void rollover() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Item> items = itemRepository.findWithNextBookingStartedBetween(lastRollover, now);
+        items.forEach(item -> refresh(item, now));
+        lastRollover = now;
+        if (!items.isEmpty()) {
+            log.debug("Booking pointers rolled over for {} items", items.size());
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package ru.practicum.shareit.comment.repository;
 
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.comment.entity.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemId(Long itemId);
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemIdIn(List<Long> items, Sort sort);
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.exception;
+
+public class BookingConflictException extends RuntimeException {
+    public BookingConflictException(Long itemId, Long conflictingBookingId) {
+        super("Item " + itemId + " is already booked for this time by booking " + conflictingBookingId);
+    }
+
+    public BookingConflictException(Long itemId) {
+        super("Item " + itemId + " is already booked for this time");
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.generator;
+
+import lombok.RequiredArgsConstructor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+/**
+ * Загрузка пакетными INSERT для СУБД без COPY (H2 в профилях ci,test): batchSize строк на executeBatch,
+ * каждая пачка фиксируется отдельной транзакцией.
+ */
+@RequiredArgsConstructor
+class BatchInsertBulkLoader implements BulkLoader {
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    @Override
+    public RowSink open(String table, String... columns) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO " + table
+                    + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns.length, "?")) + ")");
+            return new BatchSink(connection, statement, batchSize);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void restartIdentity(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet max = statement.executeQuery("SELECT coalesce(max(id), 0) + 1 FROM " + table)) {
+            max.next();
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + max.getLong(1));
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class BatchSink implements RowSink {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final int batchSize;
+        private int batched;
+
+        @Override
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++batched == batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+                connection.setAutoCommit(true);
+                connection.close();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (batched > 0) {
+                statement.executeBatch();
+                connection.commit();
+                batched = 0;
+            }
+        }
+    }
+}
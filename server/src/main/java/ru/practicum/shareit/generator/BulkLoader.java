@@ -0,0 +1,31 @@
+package ru.practicum.shareit.generator;
+
+import java.sql.SQLException;
+
+/**
+ * Потоковая загрузка строк в таблицу. Строки не накапливаются: реализация отправляет их в базу
+ * пачками фиксированного размера, поэтому память не зависит от числа строк.
+ */
+interface BulkLoader {
+
+    RowSink open(String table, String... columns) throws SQLException;
+
+    /**
+     * Сдвигает identity-столбец id таблицы за максимальный загруженный id
+     */
+    void restartIdentity(String table) throws SQLException;
+
+    interface RowSink extends AutoCloseable {
+
+        /**
+         * Значения в порядке столбцов open(): Long, Integer, Boolean, String, LocalDateTime или null
+         */
+        void row(Object... values) throws SQLException;
+
+        /**
+         * Отправляет оставшиеся строки и фиксирует загрузку
+         */
+        @Override
+        void close() throws SQLException;
+    }
+}
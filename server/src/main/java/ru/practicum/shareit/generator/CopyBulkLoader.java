@@ -0,0 +1,105 @@
+package ru.practicum.shareit.generator;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Загрузка в PostgreSQL через COPY ... FROM STDIN (FORMAT csv) драйвера pgjdbc. Строки копятся
+ * в буфере до BUFFER_SIZE символов и уходят в открытый COPY; одна таблица - одна транзакция COPY.
+ */
+@RequiredArgsConstructor
+class CopyBulkLoader implements BulkLoader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataSource dataSource;
+
+    @Override
+    public RowSink open(String table, String... columns) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(true);
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT csv)");
+            return new CopySink(connection, copyIn);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void restartIdentity(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                    + "(SELECT coalesce(max(id), 0) + 1 FROM " + table + "), false)");
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class CopySink implements RowSink {
+        private final Connection connection;
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 1024);
+
+        @Override
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                appendCsv(values[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                connection.close();
+            }
+        }
+
+        /**
+         * NULL в CSV - пустое значение без кавычек, строки всегда в кавычках
+         */
+        private void appendCsv(Object value) {
+            if (value instanceof String) {
+                buffer.append('"');
+                String text = (String) value;
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    if (c == '"') {
+                        buffer.append('"');
+                    }
+                    buffer.append(c);
+                }
+                buffer.append('"');
+            } else if (value != null) {
+                buffer.append(value);
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+}
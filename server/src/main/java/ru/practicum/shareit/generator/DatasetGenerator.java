@@ -0,0 +1,337 @@
+package ru.practicum.shareit.generator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.entity.Status;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генератор синтетического набора данных для нагрузочных тестов и проверки планов на больших объемах.
+ * Запуск: java -jar shareit-server.jar --spring.profiles.active=generate --shareit.generator.items=10000000 ...
+ * (PostgreSQL, загрузка через COPY) или --spring.profiles.active=test,generate (H2, пакетные INSERT).
+ * Данные дописываются после уже существующих строк, внешние ключи schema.sql соблюдаются. Сервер после
+ * генерации запускается с --spring.sql.init.mode=never, иначе schema.sql пересоздаст таблицы.
+ * <p>
+ * Распределения: владельцы вещей выбираются по Ципфу (у первых владельцев огромные каталоги),
+ * популярность вещи - по Парето (немногие вещи собирают большую часть бронирований), бронирующие
+ * распределены равномерно. Бронирования одной вещи не пересекаются, указатели last_booking_id и
+ * next_booking_id заполнены так же, как их поддерживает ItemBookingPointers.
+ * <p>
+ * Память не зависит от объема: все, что нужно о вещи (владелец, число и расписание бронирований),
+ * заново вычисляется из генератора случайных чисел с зерном от id вещи. Поэтому бронирования
+ * генерируются дважды: при записи items для указателей и при записи bookings.
+ */
+
+@Slf4j
+@Component
+@Profile("generate")
+public class DatasetGenerator implements ApplicationRunner {
+    private static final String[] WORDS = {"drill", "saw", "ladder", "tent", "bike", "kayak", "camera",
+            "projector", "guitar", "mixer", "scooter", "telescope", "hammer", "sander", "speaker", "stroller"};
+    private static final String[] ADJECTIVES = {"old", "new", "compact", "heavy", "portable", "cordless",
+            "professional", "kids", "foldable", "electric"};
+    private static final String[] COMMENTS = {"Everything worked fine", "Slightly worn but ok",
+            "Owner was very helpful", "Would rent again", "Battery did not hold charge", "Exactly as described"};
+    private static final long DAY_SECONDS = TimeUnit.DAYS.toSeconds(1);
+    private static final long MAX_BOOKING_SECONDS = DAY_SECONDS * 14;
+    private static final long MIN_SLOT_SECONDS = TimeUnit.HOURS.toSeconds(1);
+    private static final int PROGRESS_ROWS = 1_000_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationContext context;
+    private final BulkLoader loader;
+    private final boolean postgres;
+    private final int users;
+    private final int owners;
+    private final int requests;
+    private final int items;
+    private final long bookings;
+    private final double commentRatio;
+    private final double popularityExponent;
+    private final ZipfSampler ownerSampler;
+    private final int historyDays;
+    private final int futureDays;
+    private final long seed;
+
+    private LocalDateTime now;
+    private long userBase;
+    private long requestBase;
+    private long itemBase;
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, DataSource dataSource, ApplicationContext context,
+                            @Value("${shareit.generator.users}") int users,
+                            @Value("${shareit.generator.owner-share}") double ownerShare,
+                            @Value("${shareit.generator.owner-exponent}") double ownerExponent,
+                            @Value("${shareit.generator.requests}") int requests,
+                            @Value("${shareit.generator.items}") int items,
+                            @Value("${shareit.generator.bookings}") long bookings,
+                            @Value("${shareit.generator.popularity-exponent}") double popularityExponent,
+                            @Value("${shareit.generator.comment-ratio}") double commentRatio,
+                            @Value("${shareit.generator.history-days}") int historyDays,
+                            @Value("${shareit.generator.future-days}") int futureDays,
+                            @Value("${shareit.generator.batch-size}") int batchSize,
+                            @Value("${shareit.generator.seed}") long seed) throws MetaDataAccessException {
+        if (users < 2) {
+            throw new IllegalArgumentException("shareit.generator.users must be at least 2: an owner and a booker");
+        }
+        if (popularityExponent <= 1) {
+            throw new IllegalArgumentException("shareit.generator.popularity-exponent must be greater than 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.context = context;
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(database);
+        this.loader = postgres ? new CopyBulkLoader(dataSource) : new BatchInsertBulkLoader(dataSource, batchSize);
+        this.users = users;
+        this.owners = Math.max(1, (int) (users * ownerShare));
+        this.ownerSampler = new ZipfSampler(owners, ownerExponent);
+        this.requests = requests;
+        this.items = items;
+        this.bookings = bookings;
+        this.popularityExponent = popularityExponent;
+        this.commentRatio = commentRatio;
+        this.historyDays = historyDays;
+        this.futureDays = futureDays;
+        this.seed = seed;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        userBase = maxId("users");
+        requestBase = maxId("requests");
+        itemBase = maxId("items");
+        long started = System.nanoTime();
+
+        generateUsers();
+        generateRequests();
+        long bookingBase = Math.max(maxId("bookings"), maxId("bookings_archive"));
+        generateItems(bookingBase);
+        if (postgres) {
+            createPartitions();
+            jdbcTemplate.execute("ALTER TABLE bookings DISABLE TRIGGER trg_bookings_sync_slot");
+        }
+        try {
+            generateBookingsAndComments(bookingBase, maxId("comments"));
+        } finally {
+            if (postgres) {
+                jdbcTemplate.execute("ALTER TABLE bookings ENABLE TRIGGER trg_bookings_sync_slot");
+            }
+        }
+        if (postgres) {
+            int slots = jdbcTemplate.update("INSERT INTO booking_slots (booking_id, item_id, period) "
+                    + "SELECT id, item_id, tsrange(start_date, end_date) FROM bookings "
+                    + "WHERE status = 'APPROVED' AND id > ?", bookingBase);
+            log.info("Generator: {} booking slots", slots);
+        }
+        for (String table : new String[]{"users", "requests", "items", "bookings", "comments"}) {
+            loader.restartIdentity(table);
+        }
+        if (postgres) {
+            jdbcTemplate.execute("ANALYZE");
+        }
+        log.info("Generator: dataset generated in {} s", (System.nanoTime() - started) / 1_000_000_000L);
+
+        int exitCode = SpringApplication.exit(context, () -> 0);
+        System.exit(exitCode);
+    }
+
+    private void generateUsers() throws SQLException {
+        long started = System.nanoTime();
+        try (BulkLoader.RowSink sink = loader.open("users", "id", "name", "email")) {
+            for (long id = userBase + 1; id <= userBase + users; id++) {
+                sink.row(id, "user " + id, "user" + id + "@example.com");
+                progress("users", id - userBase);
+            }
+        }
+        done("users", users, started);
+    }
+
+    private void generateRequests() throws SQLException {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        long historySeconds = DAY_SECONDS * historyDays;
+        try (BulkLoader.RowSink sink = loader.open("requests", "id", "description", "requester_id", "created")) {
+            for (long id = requestBase + 1; id <= requestBase + requests; id++) {
+                sink.row(id, "looking for a " + WORDS[random.nextInt(WORDS.length)],
+                        userBase + 1 + random.nextInt(users), now.minusSeconds(random.nextLong(historySeconds)));
+                progress("requests", id - requestBase);
+            }
+        }
+        done("requests", requests, started);
+    }
+
+    private void generateItems(long bookingBase) throws SQLException {
+        long started = System.nanoTime();
+        long nextBookingId = bookingBase + 1;
+        try (BulkLoader.RowSink sink = loader.open("items", "id", "name", "description", "is_available",
+                "user_id", "request_id", "last_booking_id", "next_booking_id")) {
+            for (long id = itemBase + 1; id <= itemBase + items; id++) {
+                ItemPlan item = new ItemPlan(id);
+                long firstBookingId = nextBookingId;
+                long[] pointers = new long[2];
+                item.bookings((index, start, end, booker, status) -> {
+                    if (status == Status.APPROVED) {
+                        if (!start.isAfter(now)) {
+                            pointers[0] = firstBookingId + index;
+                        } else if (pointers[1] == 0) {
+                            pointers[1] = firstBookingId + index;
+                        }
+                    }
+                });
+                nextBookingId += item.bookingCount;
+                sink.row(id, item.name, item.description, item.available, item.owner, item.request,
+                        pointers[0] == 0 ? null : pointers[0], pointers[1] == 0 ? null : pointers[1]);
+                progress("items", id - itemBase);
+            }
+        }
+        done("items", items, started);
+    }
+
+    private void generateBookingsAndComments(long bookingBase, long commentBase) throws SQLException {
+        long started = System.nanoTime();
+        SplittableRandom commentRandom = new SplittableRandom(seed + 1);
+        long[] ids = {bookingBase, commentBase};
+        try (BulkLoader.RowSink bookingSink = loader.open("bookings", "id", "start_date", "end_date", "item_id",
+                "booker_id", "status");
+             BulkLoader.RowSink commentSink = loader.open("comments", "id", "text", "created", "item_id",
+                     "author_id")) {
+            for (long id = itemBase + 1; id <= itemBase + items; id++) {
+                ItemPlan item = new ItemPlan(id);
+                item.bookings((index, start, end, booker, status) -> {
+                    bookingSink.row(++ids[0], start, end, item.id, booker, status.name());
+                    progress("bookings", ids[0] - bookingBase);
+                    if (status == Status.APPROVED && end.isBefore(now) && commentRandom.nextDouble() < commentRatio) {
+                        LocalDateTime created = end.plusMinutes(commentRandom.nextInt(3 * 24 * 60));
+                        commentSink.row(++ids[1], COMMENTS[commentRandom.nextInt(COMMENTS.length)],
+                                created.isAfter(now) ? now : created, item.id, booker);
+                    }
+                });
+            }
+        }
+        done("bookings", ids[0] - bookingBase, started);
+        log.info("Generator: {} comments", ids[1] - commentBase);
+    }
+
+    /**
+     * Секции bookings на весь период истории заранее: иначе строки COPY попадут в bookings_default
+     */
+    private void createPartitions() {
+        LocalDate month = now.minusDays(historyDays).toLocalDate().withDayOfMonth(1);
+        LocalDate last = now.plusDays(futureDays + 14L).toLocalDate();
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            jdbcTemplate.queryForObject("SELECT create_bookings_partition(?)", Boolean.class, month);
+        }
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT max(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private static void progress(String table, long rows) {
+        if (rows % PROGRESS_ROWS == 0) {
+            log.info("Generator: {} {} rows", table, rows);
+        }
+    }
+
+    private static void done(String table, long rows, long started) {
+        double seconds = Math.max(1, System.nanoTime() - started) / 1e9;
+        log.info("Generator: {} rows of {} in {} s, {} rows/s", rows, table, Math.round(seconds),
+                Math.round(rows / seconds));
+    }
+
+    @FunctionalInterface
+    private interface BookingVisitor {
+        void visit(int index, LocalDateTime start, LocalDateTime end, long booker, Status status)
+                throws SQLException;
+    }
+
+    /**
+     * Все свойства вещи, вычисленные из генератора с зерном от ее id: при повторном создании
+     * ItemPlan с тем же id получаются те же владелец, поля и расписание бронирований
+     */
+    private class ItemPlan {
+        private final long id;
+        private final SplittableRandom random;
+        private final long owner;
+        private final String name;
+        private final String description;
+        private final boolean available;
+        private final Long request;
+        private final int bookingCount;
+
+        ItemPlan(long id) {
+            this.id = id;
+            this.random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L ^ id);
+            int ownerRank = ownerSampler.sample(random);
+            this.owner = userBase + 1 + (long) (ownerRank - 1) * (users / owners);
+            String word = WORDS[random.nextInt(WORDS.length)];
+            this.name = word + " " + id;
+            this.description = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + word + ", item " + id;
+            this.available = random.nextInt(10) != 0;
+            this.request = requests > 0 && random.nextInt(5) == 0 ? requestBase + 1 + random.nextInt(requests) : null;
+            this.bookingCount = bookingCount();
+        }
+
+        /**
+         * Число бронирований пропорционально весу Парето с показателем popularity-exponent,
+         * в среднем bookings / items на вещь
+         */
+        private int bookingCount() {
+            double weight = Math.pow(1 - random.nextDouble(), -1 / popularityExponent);
+            double meanWeight = popularityExponent / (popularityExponent - 1);
+            double expected = (double) bookings / items * weight / meanWeight;
+            long count = (long) expected + (random.nextDouble() < expected - Math.floor(expected) ? 1 : 0);
+            long maxCount = DAY_SECONDS * (historyDays + futureDays) / MIN_SLOT_SECONDS;
+            return (int) Math.min(count, maxCount);
+        }
+
+        /**
+         * Бронирования по порядку начала: период истории делится на bookingCount равных слотов,
+         * каждое бронирование лежит внутри своего слота, поэтому бронирования вещи не пересекаются
+         */
+        void bookings(BookingVisitor visitor) throws SQLException {
+            if (bookingCount == 0) {
+                return;
+            }
+            LocalDateTime first = now.minusDays(historyDays);
+            long slot = DAY_SECONDS * (historyDays + futureDays) / bookingCount;
+            for (int index = 0; index < bookingCount; index++) {
+                LocalDateTime start = first.plusSeconds(slot * index + random.nextLong(Math.max(1, slot * 3 / 10)));
+                long duration = Math.min(MAX_BOOKING_SECONDS, (long) (slot * (0.2 + 0.4 * random.nextDouble())));
+                LocalDateTime end = start.plusSeconds(Math.max(60, duration));
+                long booker = userBase + 1 + random.nextInt(users);
+                if (booker == owner) {
+                    booker = userBase + 1 + (booker - userBase) % users;
+                }
+                visitor.visit(index, start, end, booker, status(start));
+            }
+        }
+
+        private Status status(LocalDateTime start) {
+            double chance = random.nextDouble();
+            if (start.isAfter(now)) {
+                return chance < 0.5 ? Status.APPROVED : chance < 0.9 ? Status.WAITING : Status.REJECTED;
+            }
+            return chance < 0.75 ? Status.APPROVED : chance < 0.9 ? Status.REJECTED : Status.CANCELED;
+        }
+    }
+}
@@ -11,7 +11,8 @@ import ru.practicum.shareit.exception.*;
 @RestControllerAdvice()
 public class ErrorHandler {
 
-    @ExceptionHandler({IncorrectCommentException.class, IncorrectBookingException.class})
+    @ExceptionHandler({IncorrectCommentException.class, IncorrectBookingException.class,
+            IncorrectCursorException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(RuntimeException exception) {
         log.error("BAD_REQUEST: 400 : {}", exception.getMessage());
@@ -26,9 +27,9 @@ public class ErrorHandler {
         return new ErrorResponse(exception.getMessage());
     }
 
-    @ExceptionHandler(EmailAlreadyUsedException.class)
+    @ExceptionHandler({EmailAlreadyUsedException.class, BookingConflictException.class})
     @ResponseStatus(HttpStatus.CONFLICT)
-    public ErrorResponse handleAlreadyExistException(final EmailAlreadyUsedException exception) {
+    public ErrorResponse handleAlreadyExistException(final RuntimeException exception) {
         log.error("CONFLICT: 409 : {}", exception.getMessage());
         return new ErrorResponse(exception.getMessage());
     }
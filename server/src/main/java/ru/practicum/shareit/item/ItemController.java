@@ -3,11 +3,16 @@ package ru.practicum.shareit.item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.utilitary.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.utilitary.Constants.HEADER_USER_ID;
@@ -28,19 +33,32 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemDto> getItemsByOwner(@RequestHeader(HEADER_USER_ID) Long ownerId,
+    public ResponseEntity<List<ItemDto>> getItemsByOwner(@RequestHeader(HEADER_USER_ID) Long ownerId,
                                          @RequestParam(defaultValue = "0") Integer from,
-                                         @RequestParam(defaultValue = "10") Integer size) {
+                                         @RequestParam(defaultValue = "10") Integer size,
+                                         @RequestParam(required = false) String after) {
         log.info("GET: request was received to the endpoint: '/items' to receive all the owner's items with ID={}", ownerId);
-        return itemService.getItemsByOwner(ownerId, from, size);
+        return PageCursor.page(itemService.getItemsByOwner(ownerId, from, size, PageCursor.decode(after)),
+                size, item -> PageCursor.of(item.getId()));
     }
 
     @GetMapping("search")
-    public List<ItemDto> searchItems(@RequestParam String text,
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam String text,
                                      @RequestParam(defaultValue = "0") Integer from,
-                                     @RequestParam(defaultValue = "10") Integer size) {
+                                     @RequestParam(defaultValue = "10") Integer size,
+                                     @RequestParam(required = false) String after) {
         log.info("GET: request was received to the endpoint: '/items/search' to search for an item with text={}", text);
-        return itemService.search(text, from, size);
+        return PageCursor.page(itemService.search(text, from, size, PageCursor.decode(after)),
+                size, item -> PageCursor.of(item.getSearchScore(), item.getId()));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<ItemAvailabilityDto> getAvailability(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                     @PathVariable Long itemId,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("GET: request was received to the endpoint: '/items/{itemId}/availability' item {} from {} to {}", itemId, from, to);
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @PostMapping
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ItemAvailabilityDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -20,4 +21,9 @@ public class ItemDto {
     private BookingShortDto nextBooking;
     private List<CommentDto> comments;
     private Long requestId;
+    /**
+     * Оценка вещи в выдаче ItemSearchIndex для курсора следующей страницы, клиенту не отдается
+     */
+    @JsonIgnore
+    private Double searchScore;
 }
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.comment.dto.CommentMapper;
+import ru.practicum.shareit.comment.entity.Comment;
+import ru.practicum.shareit.item.entity.Item;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.booking.dto.BookingMapper.toBookingShortDto;
+
+/**
+ * Соединение DTO вещей с уже загруженными бронированиями и отзывами в памяти, без обращений к базе.
+ * Устаревшие указатели lastBooking/nextBooking вызывающий обновляет до соединения (ItemBookingPointers).
+ */
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemDtoJoin {
+
+    public static void setBookings(ItemDto itemDto, Item item) {
+        itemDto.setLastBooking(item.getLastBooking() == null ? null : toBookingShortDto(item.getLastBooking()));
+        itemDto.setNextBooking(item.getNextBooking() == null ? null : toBookingShortDto(item.getNextBooking()));
+    }
+
+    /**
+     * @param comments отзывы страницы вещей, из них берутся отзывы вещи itemDto
+     */
+    public static void setComments(ItemDto itemDto, List<Comment> comments) {
+        itemDto.setComments(comments.stream()
+                .filter(comment -> comment.getItem().getId().equals(itemDto.getId()))
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList()));
+    }
+}
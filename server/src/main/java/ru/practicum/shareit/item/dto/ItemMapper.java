@@ -32,6 +32,7 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
+                .searchScore(item.getSearchScore())
                 .build();
 
         if (item.getRequest() != null) {
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.item.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.request.entity.ItemRequest;
 import ru.practicum.shareit.user.entity.User;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 /**
  * Класс описывающий модель Item
@@ -17,6 +21,8 @@ import javax.persistence.*;
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @Table(name = "items")
 public class Item {
     @Id
@@ -30,7 +36,23 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
-    @ManyToOne(cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    private Booking lastBooking;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    private Booking nextBooking;
+    /**
+     * Время последнего create/update через ItemServiceImpl, по нему ItemSearchIndex догоняет другие реплики
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    /**
+     * Оценка вещи в выдаче ItemSearchIndex, null вне поиска по индексу
+     */
+    @Transient
+    private Double searchScore;
 }
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.item.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Страница вещей владельца одним запросом: последнее/следующее подтвержденное бронирование
+ * выбирается через DISTINCT ON, комментарии агрегируются в json_agg.
+ * Строки отображаются сразу в ItemDto, без загрузки сущностей Hibernate.
+ * Запрос использует синтаксис PostgreSQL, на других СУБД isSupported() возвращает false.
+ */
+
+@Slf4j
+@Repository
+public class ItemDashboardRepository {
+    public static final String OWNER_ITEMS = "WITH page AS ( " +
+            "    SELECT i.id, i.name, i.description, i.is_available, i.request_id FROM items AS i " +
+            "    WHERE i.user_id = :ownerId AND i.id > :afterId " +
+            "    ORDER BY i.id " +
+            "    LIMIT :size OFFSET :from " +
+            "), last_booking AS ( " +
+            "    SELECT DISTINCT ON (b.item_id) b.item_id, b.id, b.booker_id, b.start_date, b.end_date " +
+            "    FROM bookings AS b JOIN page AS p ON p.id = b.item_id " +
+            "    WHERE b.status = 'APPROVED' AND b.start_date < :now " +
+            "    ORDER BY b.item_id, b.start_date DESC " +
+            "), next_booking AS ( " +
+            "    SELECT DISTINCT ON (b.item_id) b.item_id, b.id, b.booker_id, b.start_date, b.end_date " +
+            "    FROM bookings AS b JOIN page AS p ON p.id = b.item_id " +
+            "    WHERE b.status = 'APPROVED' AND b.start_date > :now " +
+            "    ORDER BY b.item_id, b.start_date " +
+            "), item_comments AS ( " +
+            "    SELECT c.item_id, json_agg(json_build_object('id', c.id, 'text', c.text, " +
+            "           'created', c.created, 'authorName', u.name) ORDER BY c.created) AS comments " +
+            "    FROM comments AS c JOIN page AS p ON p.id = c.item_id JOIN users AS u ON u.id = c.author_id " +
+            "    GROUP BY c.item_id " +
+            ") " +
+            "SELECT p.id, p.name, p.description, p.is_available, p.request_id, " +
+            "       lb.id AS last_id, lb.booker_id AS last_booker_id, lb.start_date AS last_start, lb.end_date AS last_end, " +
+            "       nb.id AS next_id, nb.booker_id AS next_booker_id, nb.start_date AS next_start, nb.end_date AS next_end, " +
+            "       ic.comments " +
+            "FROM page AS p " +
+            "LEFT JOIN last_booking AS lb ON lb.item_id = p.id " +
+            "LEFT JOIN next_booking AS nb ON nb.item_id = p.id " +
+            "LEFT JOIN item_comments AS ic ON ic.item_id = p.id " +
+            "ORDER BY p.id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean supported;
+
+    public ItemDashboardRepository(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                   DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.supported = "PostgreSQL".equals(database);
+        if (!supported) {
+            log.warn("Owner items dashboard query is not supported by {}, falling back to entity queries", database);
+        }
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+
+    public List<ItemDto> findByOwner(Long ownerId, Long afterId, int from, int size, LocalDateTime now) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ownerId", ownerId)
+                .addValue("afterId", afterId)
+                .addValue("from", from)
+                .addValue("size", size)
+                .addValue("now", now);
+        return jdbcTemplate.query(OWNER_ITEMS, parameters, (rs, rowNum) -> toItemDto(rs));
+    }
+
+    private ItemDto toItemDto(ResultSet rs) throws SQLException {
+        ItemDto itemDto = ItemDto.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .available(rs.getObject("is_available", Boolean.class))
+                .requestId(rs.getObject("request_id", Long.class))
+                .build();
+        itemDto.setLastBooking(toBookingShortDto(rs, "last_", itemDto));
+        itemDto.setNextBooking(toBookingShortDto(rs, "next_", itemDto));
+        itemDto.setComments(toComments(rs.getString("comments")));
+        return itemDto;
+    }
+
+    private static BookingShortDto toBookingShortDto(ResultSet rs, String prefix, ItemDto itemDto) throws SQLException {
+        Long id = rs.getObject(prefix + "id", Long.class);
+        if (id == null) {
+            return null;
+        }
+        return BookingShortDto.builder()
+                .id(id)
+                .item(ItemDto.builder()
+                        .id(itemDto.getId())
+                        .name(itemDto.getName())
+                        .description(itemDto.getDescription())
+                        .available(itemDto.getAvailable())
+                        .requestId(itemDto.getRequestId())
+                        .build())
+                .bookerId(rs.getLong(prefix + "booker_id"))
+                .start(toLocalDateTime(rs.getTimestamp(prefix + "start")))
+                .end(toLocalDateTime(rs.getTimestamp(prefix + "end")))
+                .build();
+    }
+
+    private List<CommentDto> toComments(String json) throws SQLException {
+        List<CommentDto> comments = new ArrayList<>();
+        if (json == null) {
+            return comments;
+        }
+        try {
+            for (JsonNode node : objectMapper.readTree(json)) {
+                comments.add(CommentDto.builder()
+                        .id(node.get("id").asLong())
+                        .text(node.get("text").asText())
+                        .created(LocalDateTime.parse(node.get("created").asText()))
+                        .authorName(node.get("authorName").asText())
+                        .build());
+            }
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Malformed comments aggregate: " + json, e);
+        }
+        return comments;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
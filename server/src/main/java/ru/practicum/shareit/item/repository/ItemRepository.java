@@ -1,29 +1,82 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.entity.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByUserId(long userId);
 
-    List<Item> findByUserIdOrderById(Long userId, PageRequest pageRequest);
+    @Query("select i from Item i " +
+            "   left join fetch i.lastBooking " +
+            "   left join fetch i.nextBooking " +
+            "   where i.user.id = ?1 and i.id > ?2 " +
+            "   order by i.id")
+    List<Item> findWithBookingsByUserId(Long userId, Long afterId, Pageable pageable);
 
     @Query("select i from Item i " +
-            "   where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "   or upper(i.description) like upper(concat('%', ?1, '%')) " +
-            "   and i.available = true ")
-    List<Item> search(String text, PageRequest pageRequest);
+            "   left join fetch i.lastBooking " +
+            "   left join fetch i.nextBooking " +
+            "   where i.id = ?1")
+    Optional<Item> findWithBookingsById(Long itemId);
 
-    List<Item> findByUserId(Long userId);
+    @Query("select i from Item i " +
+            "   join fetch i.nextBooking nb " +
+            "   where nb.start > ?1 and nb.start <= ?2")
+    List<Item> findWithNextBookingStartedBetween(LocalDateTime from, LocalDateTime to);
+
+    @Query("select i from Item i " +
+            "   where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "   or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "   and i.available = true " +
+            "   order by i.id")
+    List<Item> search(String text, Pageable pageable);
+
+    @Query("select i from Item i " +
+            "   where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "   or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "   and i.available = true and i.id > ?2 " +
+            "   order by i.id")
+    List<Item> searchAfter(String text, Long afterId, Pageable pageable);
 
-    @Query("SELECT i.id FROM Item AS i " +
-            "JOIN User As u ON i.user.id=u.id " +
-            "WHERE i.user.id = ?1")
-    List<Long> findAllItemIdByOwnerId(Long ownerId);
+    @Query(value = "SELECT i.id, i.name, i.description, i.is_available, i.user_id, i.request_id, i.last_booking_id, i.next_booking_id, i.updated_at FROM items AS i " +
+            "WHERE i.is_available = true " +
+            "AND (i.name ILIKE concat('%', ?1, '%') OR i.description ILIKE concat('%', ?1, '%')) " +
+            "ORDER BY ts_rank(i.search_vector, plainto_tsquery('simple', ?1)) DESC, i.id " +
+            "LIMIT ?3 OFFSET ?2", nativeQuery = true)
+    List<Item> fullTextSearch(String text, int from, int size);
+
+    @Query(value = "SELECT i.id, i.name, i.description, i.is_available, i.user_id, i.request_id, i.last_booking_id, i.next_booking_id, i.updated_at FROM items AS i " +
+            "WHERE i.is_available = true " +
+            "AND (upper(i.name) LIKE upper(concat('%', ?1, '%')) OR upper(i.description) LIKE upper(concat('%', ?1, '%'))) " +
+            "ORDER BY i.id " +
+            "LIMIT ?3 OFFSET ?2", nativeQuery = true)
+    List<Item> likeSearch(String text, int from, int size);
+
+    @Query(value = "SELECT i.id, i.name, i.description, i.is_available, i.user_id, i.request_id, i.last_booking_id, i.next_booking_id, i.updated_at " +
+            "FROM items AS i, items AS c, plainto_tsquery('simple', ?1) AS q " +
+            "WHERE c.id = ?2 AND i.is_available = true " +
+            "AND (i.name ILIKE concat('%', ?1, '%') OR i.description ILIKE concat('%', ?1, '%')) " +
+            "AND (ts_rank(i.search_vector, q) < ts_rank(c.search_vector, q) " +
+            "OR (ts_rank(i.search_vector, q) = ts_rank(c.search_vector, q) AND i.id > c.id)) " +
+            "ORDER BY ts_rank(i.search_vector, q) DESC, i.id " +
+            "LIMIT ?3", nativeQuery = true)
+    List<Item> fullTextSearchAfter(String text, Long afterId, int size);
+
+    List<Item> findByUserId(Long userId);
 
     Boolean existsItemByUserId(Long ownerId);
+
+    List<Item> findByAvailableTrueAndIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<Item> findByUpdatedAtAfterAndIdGreaterThanOrderById(LocalDateTime updatedAt, Long id, Pageable pageable);
+
+    @Query("select i.id from Item i where i.available = true")
+    Stream<Long> streamAvailableIds();
 }
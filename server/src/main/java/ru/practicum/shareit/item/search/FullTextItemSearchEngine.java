@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilitary.PageCursor;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+/**
+ * Поиск средствами PostgreSQL: отбор по ilike через GIN-индексы pg_trgm (см. schema-postgresql.sql),
+ * ранжирование ts_rank по сгенерированной колонке search_vector.
+ * На других СУБД (H2 в профилях ci,test) выполняется переносимый like-запрос с сортировкой по id.
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.search", name = "backend", havingValue = "fulltext")
+public class FullTextItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+    private final boolean postgres;
+
+    public FullTextItemSearchEngine(ItemRepository itemRepository, DataSource dataSource) throws MetaDataAccessException {
+        this.itemRepository = itemRepository;
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(database);
+        if (!postgres) {
+            log.warn("Full text item search is not supported by {}, falling back to like search", database);
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        if (postgres) {
+            return itemRepository.fullTextSearch(text, from, size);
+        }
+        return itemRepository.likeSearch(text, from, size);
+    }
+
+    @Override
+    public List<Item> searchAfter(String text, PageCursor after, int size) {
+        if (postgres) {
+            return itemRepository.fullTextSearchAfter(text, after.getId(), size);
+        }
+        return itemRepository.searchAfter(text, after.getId(), PageRequest.of(0, size));
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.utilitary.PageCursor;
+
+import java.util.List;
+
+/**
+ * Бэкенд поиска вещей, выбирается свойством shareit.search.backend (index, fulltext, like)
+ */
+
+public interface ItemSearchEngine {
+
+    List<Item> search(String text, int from, int size);
+
+    /**
+     * Следующая страница выдачи после курсора after в том же порядке, что и search
+     */
+    List<Item> searchAfter(String text, PageCursor after, int size);
+
+    default void index(Item item) {
+    }
+
+    default void remove(Long itemId) {
+    }
+}
@@ -0,0 +1,410 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.IncorrectCursorException;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilitary.PageCursor;
+
+import javax.annotation.PostConstruct;
+import javax.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс по name/description доступных вещей с ранжированием BM25.
+ * Строится при старте из таблицы items. Изменения из ItemServiceImpl (create/update/delete) применяются
+ * после фиксации транзакции, изменения других реплик - по расписанию: refresh-interval перечитывает
+ * вещи с items.updated_at позже предыдущего прохода минус refresh-overlap и убирает удаленные вещи.
+ * Каждое слово запроса ищется как подстрока термов индекса (как like '%text%' в LikeItemSearchEngine).
+ * Термы с подстрокой находятся по индексу n-грамм словаря (grams): слово до MAX_GRAM символов - прямо
+ * по n-грамме, длиннее - среди термов самой редкой своей триграммы с проверкой contains.
+ * Вещь попадает в выдачу, только если в ней нашлись все слова запроса; в отличие от like, слова
+ * запроса не обязаны идти в тексте подряд.
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.search", name = "backend", havingValue = "index", matchIfMissing = true)
+public class ItemSearchIndex implements ItemSearchEngine {
+    private static final int BATCH_SIZE = 1000;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final Duration refreshOverlap;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    /**
+     * Подстроки длиной 1..MAX_GRAM -> термы словаря, которые их содержат
+     */
+    private final Map<String, Set<String>> grams = new HashMap<>();
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    /**
+     * Начало предыдущего прохода build/refresh
+     */
+    private LocalDateTime refreshedAt;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.index.refresh-overlap}") Duration refreshOverlap) {
+        this.itemRepository = itemRepository;
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    @PostConstruct
+    public void build() {
+        refreshedAt = LocalDateTime.now();
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(lastId, PageRequest.of(0, BATCH_SIZE));
+            batch.forEach(this::apply);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        log.info("Item search index built: {} items, {} terms", items.size(), postings.size());
+    }
+
+    /**
+     * Сначала убирает удаленные и ставшие недоступными вещи, затем переиндексирует измененные: вещь,
+     * которую второй шаг не застал в списке доступных, первый проход мог убрать, а второй вернет.
+     * refresh-overlap покрывает транзакции, зафиксированные позже своего updated_at.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${shareit.search.index.refresh-interval}")
+    public void refresh() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Set<Long> available;
+        try (Stream<Long> ids = itemRepository.streamAvailableIds()) {
+            available = ids.collect(Collectors.toSet());
+        }
+        lock.writeLock().lock();
+        try {
+            new ArrayList<>(items.keySet()).stream()
+                    .filter(id -> !available.contains(id))
+                    .forEach(this::removeInternal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LocalDateTime since = refreshedAt.minus(refreshOverlap);
+        long lastId = 0;
+        int changed = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByUpdatedAtAfterAndIdGreaterThanOrderById(since, lastId,
+                    PageRequest.of(0, BATCH_SIZE));
+            batch.forEach(this::apply);
+            changed += batch.size();
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        refreshedAt = startedAt;
+        log.debug("Item search index refreshed: {} changed items, {} items indexed", changed, items.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        afterCommit(() -> apply(item));
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeInternal(itemId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Индекс общий для всех запросов реплики, поэтому откаченная транзакция не должна его менять
+     */
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private void apply(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(item.getId());
+            if (!Boolean.TRUE.equals(item.getAvailable())) {
+                return;
+            }
+            List<String> tokens = tokenize(item.getName() + " " + item.getDescription());
+            Map<String, Integer> frequencies = new LinkedHashMap<>();
+            tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, this::newTerm).put(item.getId(), frequency));
+            items.put(item.getId(), new IndexedItem(tokens.size(), frequencies.keySet().toArray(new String[0])));
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return loadItems(page(rank(text), from, size));
+    }
+
+    /**
+     * Курсор - (score, id) последней вещи страницы, страница продолжается с первой вещи, которая в порядке
+     * score desc, id идет после него. Ранжирование пересчитывается на каждый запрос, и оценки всех вещей
+     * немного сдвигаются с каждым изменением индекса (idf, средняя длина), поэтому, пока вещь курсора
+     * находится запросом, берется ее текущая оценка - как ts_rank вещи курсора в FullTextItemSearchEngine.
+     * Если вещь удалили или она больше не находится, используется оценка из курсора: выдача продолжается,
+     * а не обрывается пустой страницей
+     */
+    @Override
+    public List<Item> searchAfter(String text, PageCursor after, int size) {
+        if (after.getScore() == null) {
+            throw new IncorrectCursorException("Search cursor without score: " + after.encode());
+        }
+        List<RankedItem> ranked = rank(text);
+        double score = ranked.stream()
+                .filter(rankedItem -> rankedItem.id == after.getId())
+                .findFirst()
+                .map(RankedItem::getScore)
+                .orElse(after.getScore());
+        int position = 0;
+        while (position < ranked.size() && !ranked.get(position).isAfter(score, after.getId())) {
+            position++;
+        }
+        return loadItems(page(ranked, position, size));
+    }
+
+    private List<Item> loadItems(List<RankedItem> ranked) {
+        Map<Long, Item> found = itemRepository.findAllById(ranked.stream().map(RankedItem::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<Item> result = new ArrayList<>(ranked.size());
+        for (RankedItem rankedItem : ranked) {
+            Item item = found.get(rankedItem.id);
+            if (item != null) {
+                item.setSearchScore(rankedItem.score);
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private List<RankedItem> rank(String text) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(text));
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Hit> hits = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (items.isEmpty()) {
+                return Collections.emptyList();
+            }
+            double averageLength = (double) totalLength / items.size();
+            int queryIndex = 0;
+            for (String queryTerm : queryTerms) {
+                for (PostingList postingList : matching(queryTerm)) {
+                    double idf = idf(postingList.size());
+                    for (int i = 0; i < postingList.size(); i++) {
+                        long itemId = postingList.itemId(i);
+                        if (queryIndex > 0 && !hits.containsKey(itemId)) {
+                            continue;
+                        }
+                        int frequency = postingList.frequency(i);
+                        double norm = K1 * (1 - B + B * items.get(itemId).length / averageLength);
+                        hits.computeIfAbsent(itemId, id -> new Hit())
+                                .add(queryIndex, idf * frequency * (K1 + 1) / (frequency + norm));
+                    }
+                }
+                final int matched = queryIndex + 1;
+                hits.values().removeIf(hit -> hit.matchedTerms < matched);
+                queryIndex++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<RankedItem> ranked = new ArrayList<>(hits.size());
+        hits.forEach((itemId, hit) -> ranked.add(new RankedItem(itemId, hit.score)));
+        ranked.sort(Comparator.comparingDouble(RankedItem::getScore).reversed()
+                .thenComparing(RankedItem::getId));
+        return ranked;
+    }
+
+    /**
+     * Списки термов, содержащих слово запроса
+     */
+    private List<PostingList> matching(String queryTerm) {
+        List<PostingList> matched = new ArrayList<>();
+        if (queryTerm.length() <= MAX_GRAM) {
+            grams.getOrDefault(queryTerm, Collections.emptySet())
+                    .forEach(term -> matched.add(postings.get(term)));
+            return matched;
+        }
+        Set<String> candidates = null;
+        for (int i = 0; i + MAX_GRAM <= queryTerm.length(); i++) {
+            Set<String> terms = grams.getOrDefault(queryTerm.substring(i, i + MAX_GRAM), Collections.emptySet());
+            if (candidates == null || terms.size() < candidates.size()) {
+                candidates = terms;
+            }
+        }
+        for (String term : candidates) {
+            if (term.contains(queryTerm)) {
+                matched.add(postings.get(term));
+            }
+        }
+        return matched;
+    }
+
+    private PostingList newTerm(String term) {
+        for (String gram : grams(term)) {
+            grams.computeIfAbsent(gram, key -> new HashSet<>()).add(term);
+        }
+        return new PostingList();
+    }
+
+    private void removeTerm(String term) {
+        postings.remove(term);
+        for (String gram : grams(term)) {
+            Set<String> terms = grams.get(gram);
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String term) {
+        Set<String> result = new HashSet<>();
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= term.length(); i++) {
+                result.add(term.substring(i, i + length));
+            }
+        }
+        return result;
+    }
+
+    private static List<RankedItem> page(List<RankedItem> ranked, int from, int size) {
+        if (from >= ranked.size()) {
+            return Collections.emptyList();
+        }
+        return ranked.subList(from, Math.min(ranked.size(), from + size));
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean letter = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void removeInternal(Long itemId) {
+        IndexedItem indexed = items.remove(itemId);
+        if (indexed == null) {
+            return;
+        }
+        for (String term : indexed.terms) {
+            PostingList postingList = postings.get(term);
+            postingList.remove(itemId);
+            if (postingList.isEmpty()) {
+                removeTerm(term);
+            }
+        }
+        totalLength -= indexed.length;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (items.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    @RequiredArgsConstructor
+    private static class IndexedItem {
+        private final int length;
+        private final String[] terms;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class RankedItem {
+        private final long id;
+        private final double score;
+
+        /**
+         * Идет ли вещь после курсора (score, id) в порядке score desc, id
+         */
+        boolean isAfter(double cursorScore, long cursorId) {
+            return score < cursorScore || score == cursorScore && id > cursorId;
+        }
+    }
+
+    private static class Hit {
+        private double score;
+        private int matchedTerms;
+        private int lastQueryIndex = -1;
+
+        void add(int queryIndex, double termScore) {
+            score += termScore;
+            if (lastQueryIndex != queryIndex) {
+                lastQueryIndex = queryIndex;
+                matchedTerms++;
+            }
+        }
+    }
+}
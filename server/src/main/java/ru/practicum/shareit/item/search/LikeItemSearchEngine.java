@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilitary.OffsetPageRequest;
+import ru.practicum.shareit.utilitary.PageCursor;
+
+import java.util.List;
+
+/**
+ * Поиск запросом upper(...) like '%text%' без индексов с сортировкой по id, работает на любой БД
+ */
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.search", name = "backend", havingValue = "like")
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return itemRepository.search(text, OffsetPageRequest.of(from, size));
+    }
+
+    @Override
+    public List<Item> searchAfter(String text, PageCursor after, int size) {
+        return itemRepository.searchAfter(text, after.getId(), PageRequest.of(0, size));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Список вхождений одного терма: id вещей (по возрастанию) и частота терма в каждой из них
+ */
+
+class PostingList {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] itemIds = new long[INITIAL_CAPACITY];
+    private int[] frequencies = new int[INITIAL_CAPACITY];
+    private int size;
+
+    void put(long itemId, int frequency) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        if (position >= 0) {
+            frequencies[position] = frequency;
+            return;
+        }
+        position = -position - 1;
+        if (size == itemIds.length) {
+            int capacity = size + (size >> 1) + 1;
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+        }
+        System.arraycopy(itemIds, position, itemIds, position + 1, size - position);
+        System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+        itemIds[position] = itemId;
+        frequencies[position] = frequency;
+        size++;
+    }
+
+    void remove(long itemId) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(itemIds, position + 1, itemIds, position, size - position - 1);
+        System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long itemId(int index) {
+        return itemIds[index];
+    }
+
+    int frequency(int index) {
+        return frequencies[index];
+    }
+}
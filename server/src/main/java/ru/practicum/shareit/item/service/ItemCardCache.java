@@ -0,0 +1,173 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Кэш собранных карточек GET /items/{itemId} (ItemServiceImpl.getItemsByOwner(itemId, ownerId)).
+ * У вещи две карточки: владельца - с lastBooking/nextBooking, и общая - без бронирований.
+ * Карточка владельца живет до начала nextBooking: в этот момент указатели сдвигаются и карточка
+ * меняется без всякой записи. Изменение вещи, новый отзыв и подтверждение/отклонение бронирования
+ * сбрасывают карточки вещи, expire-after-write ограничивает устаревание при изменениях другой репликой.
+ * Чтобы читатель, загрузивший вещь до фиксации изменения, не положил устаревшую карточку после сброса,
+ * сброс увеличивает поколение вещи, а put пропускает карточку, если поколение изменилось с начала загрузки.
+ * Поколения хранятся в GENERATION_STRIPES счетчиках по id вещи: сброс соседней вещи лишь пропускает один put.
+ * Метрики cache.gets (hit/miss), cache.evictions и т.п. с тегом cache=item-cards.
+ */
+
+@Component
+public class ItemCardCache {
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final Cache<Long, Card> cards;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    /**
+     * Поколение всех вещей, его увеличивает evictAll
+     */
+    private final AtomicLong allGeneration = new AtomicLong();
+
+    public ItemCardCache(MeterRegistry meterRegistry,
+                         @Value("${shareit.item-cards.maximum-size}") long maximumSize,
+                         @Value("${shareit.item-cards.expire-after-write}") Duration expireAfterWrite) {
+        this.cards = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilBoundary(expireAfterWrite))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cards, "item-cards");
+    }
+
+    /**
+     * Карточка вещи для пользователя userId: карточка владельца, если он владелец, иначе общая.
+     * Возвращается общий экземпляр, изменять его нельзя
+     */
+    public ItemDto find(Long itemId, Long userId) {
+        Card card = cards.getIfPresent(key(itemId, true));
+        if (card != null && card.ownerId.equals(userId)) {
+            return card.item;
+        }
+        card = cards.getIfPresent(key(itemId, false));
+        if (card != null && !card.ownerId.equals(userId)) {
+            return card.item;
+        }
+        return null;
+    }
+
+    /**
+     * Поколение карточек вещи; читается до загрузки вещи из базы и передается в put
+     */
+    public long generation(Long itemId) {
+        return generations.get(stripe(itemId)) + allGeneration.get();
+    }
+
+    /**
+     * Кладет карточку, если с чтения generation карточки вещи не сбрасывались.
+     * Поколение проверяется еще раз после записи: сброс между проверкой и записью мог не увидеть карточку
+     *
+     * @param expiresAt  начало ближайшего бронирования в карточке владельца, null - только expire-after-write
+     * @param generation поколение, прочитанное до загрузки вещи
+     */
+    public void put(ItemDto item, Long ownerId, boolean ownerCard, LocalDateTime expiresAt, long generation) {
+        if (generation(item.getId()) != generation) {
+            return;
+        }
+        long key = key(item.getId(), ownerCard);
+        Card card = new Card(item, ownerId, expiresAt);
+        cards.put(key, card);
+        if (generation(item.getId()) != generation) {
+            cards.asMap().remove(key, card);
+        }
+    }
+
+    /**
+     * Сбрасывает карточки вещи сразу и еще раз после фиксации транзакции, как UserCache.evict.
+     * Поколение увеличивается до сброса, чтобы put после сброса его увидел
+     */
+    public void evict(Long itemId) {
+        invalidate(() -> {
+            generations.incrementAndGet(stripe(itemId));
+            cards.invalidate(key(itemId, true));
+            cards.invalidate(key(itemId, false));
+        });
+    }
+
+    /**
+     * Для изменений, затрагивающих карточки многих вещей: имя автора в отзывах, удаление пользователя
+     */
+    public void evictAll() {
+        invalidate(() -> {
+            allGeneration.incrementAndGet();
+            cards.invalidateAll();
+        });
+    }
+
+    private static void invalidate(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static int stripe(Long itemId) {
+        return (int) Math.floorMod(itemId, (long) GENERATION_STRIPES);
+    }
+
+    /**
+     * Младший бит ключа - вид карточки: 1 - карточка владельца, 0 - общая
+     */
+    private static long key(Long itemId, boolean ownerCard) {
+        return itemId << 1 | (ownerCard ? 1 : 0);
+    }
+
+    @RequiredArgsConstructor
+    private static class Card {
+        private final ItemDto item;
+        private final Long ownerId;
+        private final LocalDateTime expiresAt;
+    }
+
+    @RequiredArgsConstructor
+    private static class UntilBoundary implements Expiry<Long, Card> {
+        private final Duration expireAfterWrite;
+
+        @Override
+        public long expireAfterCreate(Long key, Card card, long currentTime) {
+            if (card.expiresAt == null) {
+                return expireAfterWrite.toNanos();
+            }
+            Duration untilBoundary = Duration.between(LocalDateTime.now(), card.expiresAt);
+            return untilBoundary.compareTo(expireAfterWrite) < 0
+                    ? Math.max(0, untilBoundary.toNanos())
+                    : expireAfterWrite.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Card card, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, card, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Card card, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR: поиск вещей по тексту (ItemServiceImpl.search) через настроенный ItemSearchEngine
+ */
+
+@Name("ru.practicum.shareit.ItemSearch")
+@Label("Item Search")
+@Category({"ShareIt", "Item"})
+@Description("Поиск доступных вещей по тексту")
+@StackTrace(false)
+class ItemSearchEvent extends Event {
+    @Label("Term")
+    String term;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Keyset")
+    @Description("Страница по курсору after, а не по смещению from")
+    boolean keyset;
+
+    @Label("Page Size")
+    int size;
+
+    @Label("Hits")
+    int hits;
+}
@@ -1,17 +1,22 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.utilitary.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
 
     ItemDto getItemsByOwner(Long itemId, Long ownerId);
 
-    List<ItemDto> getItemsByOwner(Long ownerId, Integer from, Integer size);
+    List<ItemDto> getItemsByOwner(Long ownerId, Integer from, Integer size, PageCursor after);
 
-    List<ItemDto> search(String text, Integer from, Integer size);
+    List<ItemDto> search(String text, Integer from, Integer size, PageCursor after);
+
+    List<ItemAvailabilityDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 
     ItemDto create(ItemDto itemDto, Long ownerId);
 
@@ -4,11 +4,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.dto.BookingShortDto;
-import ru.practicum.shareit.booking.entity.Booking;
-import ru.practicum.shareit.booking.entity.Status;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.ItemBookingPointers;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentMapper;
 import ru.practicum.shareit.comment.entity.Comment;
@@ -16,23 +15,27 @@ import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoJoin;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemDashboardRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.entity.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+import ru.practicum.shareit.utilitary.OffsetPageRequest;
+import ru.practicum.shareit.utilitary.PageCursor;
 import ru.practicum.shareit.exception.IncorrectCommentException;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
-import static ru.practicum.shareit.booking.dto.BookingMapper.toBookingShortDto;
 import static ru.practicum.shareit.comment.dto.CommentMapper.toCommentDtoList;
 import static ru.practicum.shareit.item.dto.ItemMapper.*;
 
@@ -42,22 +45,30 @@ import static ru.practicum.shareit.item.dto.ItemMapper.*;
 public class ItemServiceImpl implements ItemService {
 
     private final ItemRepository itemRepository;
+    private final ItemDashboardRepository itemDashboardRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingPointers itemBookingPointers;
+    private final ItemCardCache itemCardCache;
 
     @Override
     @Transactional
     public ItemDto create(ItemDto itemDto, Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userCache.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
         Item item = fromEntityItemDto(itemDto, user);
+        item.setUpdatedAt(LocalDateTime.now());
         if (itemDto.getRequestId() != null) {
             item.setRequest(itemRequestRepository.findById(itemDto.getRequestId())
                     .orElseThrow(() -> new NotFoundException("Request with id "  + itemDto.getRequestId() + " not found")));
         }
         itemRepository.save(item);
+        itemSearchEngine.index(item);
 
         return toEntityItemDto(item);
     }
@@ -65,9 +76,7 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public ItemDto update(ItemDto itemDto, Long itemId, Long ownerId) {
-        checkUser(ownerId);
-
-        User user = userRepository.findById(ownerId).get();
+        User user = getUserById(ownerId);
 
         if (!itemRepository.existsById(itemId)) {
             throw new ItemNotFoundException(itemId);
@@ -94,7 +103,10 @@ public class ItemServiceImpl implements ItemService {
             newItem.setAvailable(item.getAvailable());
         }
 
+        newItem.setUpdatedAt(LocalDateTime.now());
         itemRepository.save(newItem);
+        itemSearchEngine.index(newItem);
+        itemCardCache.evict(itemId);
 
         return toEntityItemDto(newItem);
     }
@@ -103,52 +115,52 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     public void delete(Long itemId) {
         itemRepository.deleteById(itemId);
+        itemSearchEngine.remove(itemId);
+        itemCardCache.evict(itemId);
     }
 
 
     @Override
     @Transactional
-    public List<ItemDto> search(String text, Integer from, Integer size) {
-        PageRequest pageRequest = PageRequest.of(from / size, size);
-
+    public List<ItemDto> search(String text, Integer from, Integer size, PageCursor after) {
         if (text.isEmpty()) {
             return Collections.emptyList();
-        } else {
-            return toItemDtoList(itemRepository.search(text, pageRequest));
         }
+        ItemSearchEvent event = new ItemSearchEvent();
+        event.begin();
+        List<ItemDto> items = toItemDtoList(after != null
+                ? itemSearchEngine.searchAfter(text, after, size)
+                : itemSearchEngine.search(text, from, size));
+        if (event.shouldCommit()) {
+            event.term = text;
+            event.engine = itemSearchEngine.getClass().getSimpleName();
+            event.keyset = after != null;
+            event.size = size;
+            event.hits = items.size();
+            event.commit();
+        }
+        return items;
     }
 
     @Override
     @Transactional
     public ItemDto getItemsByOwner(Long itemId, Long ownerId) {
-
-        if (!itemRepository.existsById(itemId)) {
-            throw new ItemNotFoundException(itemId);
+        ItemDto card = itemCardCache.find(itemId, ownerId);
+        if (card != null) {
+            checkUser(ownerId);
+            return card;
         }
-        Item item = itemRepository.findById(itemId).get();
 
-        ItemDto itemDto = ItemMapper.toEntityItemDto(item);
+        long generation = itemCardCache.generation(itemId);
+        Item item = itemRepository.findWithBookingsById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
 
-        if (!userRepository.existsById(ownerId)) {
-            throw new UserNotFoundException(ownerId);
-        }
+        ItemDto itemDto = ItemMapper.toEntityItemDto(item);
 
-        if (item.getUser().getId().equals(ownerId)) {
-            Optional<Booking> lastBooking = bookingRepository
-                    .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemId, Status.APPROVED, LocalDateTime.now());
-            Optional<Booking> nextBooking = bookingRepository
-                    .findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(itemId, Status.APPROVED, LocalDateTime.now());
-            if (lastBooking.isPresent()) {
-                itemDto.setLastBooking(toBookingShortDto(lastBooking.get()));
-            } else {
-                itemDto.setLastBooking(null);
-            }
+        checkUser(ownerId);
 
-            if (nextBooking.isPresent()) {
-                itemDto.setNextBooking(toBookingShortDto(nextBooking.get()));
-            } else {
-                itemDto.setNextBooking(null);
-            }
+        boolean ownerCard = item.getUser().getId().equals(ownerId);
+        if (ownerCard) {
+            setBookings(itemDto, item, LocalDateTime.now());
         }
 
         List<Comment> commentList = commentRepository.findAllByItemId(itemId);
@@ -159,35 +171,72 @@ public class ItemServiceImpl implements ItemService {
             itemDto.setComments(Collections.emptyList());
         }
 
+        itemCardCache.put(itemDto, item.getUser().getId(), ownerCard,
+                ownerCard && item.getNextBooking() != null ? item.getNextBooking().getStart() : null, generation);
         return itemDto;
     }
 
+    @Override
+    public List<ItemAvailabilityDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException(itemId);
+        }
+        return bookingIntervalIndex.findFreeSlots(itemId, from, to).stream()
+                .map(slot -> ItemAvailabilityDto.builder()
+                        .start(slot.getStart())
+                        .end(slot.getEnd())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public CommentDto addComment(Long ownerId, Long itemId, CommentDto commentDto) {
         User user = getUserById(ownerId);
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new ItemNotFoundException(String.format("Object %s not found", Item.class)));
-        if (!bookingRepository.existsByBookerIdAndItemIdAndEndBefore(user.getId(), item.getId(), LocalDateTime.now())) {
+        if (!bookingRepository.existsByBookerIdAndItemIdAndEndBefore(user.getId(), item.getId(), LocalDateTime.now())
+                && !bookingArchiveRepository.existsByBookerIdAndItemId(user.getId(), item.getId())) {
             throw new IncorrectCommentException("User doesn't use this item");
         }
         Comment comment = commentRepository.save(CommentMapper.fromComment(commentDto, item, user, LocalDateTime.now()));
+        itemCardCache.evict(itemId);
         return CommentMapper.toCommentDto(comment);
     }
 
     @Override
-    public List<ItemDto> getItemsByOwner(Long ownerId, Integer from, Integer size) {
+    public List<ItemDto> getItemsByOwner(Long ownerId, Integer from, Integer size, PageCursor after) {
         checkUser(ownerId);
 
-        PageRequest pageRequest = PageRequest.of(from / size, size);
+        OwnerDashboardEvent event = new OwnerDashboardEvent();
+        event.begin();
+        List<ItemDto> items = findItemsByOwner(ownerId, from, size, after);
+        if (event.shouldCommit()) {
+            event.ownerId = ownerId;
+            event.dashboardQuery = itemDashboardRepository.isSupported();
+            event.keyset = after != null;
+            event.size = size;
+            event.items = items.size();
+            event.commit();
+        }
+        return items;
+    }
 
-        List<Item> items = itemRepository.findByUserIdOrderById(ownerId, pageRequest);
-        List<ItemDto> itemDtos = ItemMapper.toItemDtoList(items);
+    /**
+     * lastBooking/nextBooking - только подтвержденные (APPROVED) бронирования, как в GET /items/{itemId}.
+     * До указателей items.last_booking_id/next_booking_id список владельца показывал бронирования в любом статусе
+     */
+    private List<ItemDto> findItemsByOwner(Long ownerId, Integer from, Integer size, PageCursor after) {
+        if (itemDashboardRepository.isSupported()) {
+            return after == null
+                    ? itemDashboardRepository.findByOwner(ownerId, 0L, from, size, LocalDateTime.now())
+                    : itemDashboardRepository.findByOwner(ownerId, after.getId(), 0, size, LocalDateTime.now());
+        }
 
-        List<Booking> bookings = bookingRepository.findAllByItem_UserId(ownerId, Sort.by(Sort.Direction.ASC, "start"));
-        List<BookingShortDto> bookingShortDtos = bookings.stream()
-                .map(BookingMapper::toBookingShortDto)
-                .collect(Collectors.toList());
+        List<Item> items = after == null
+                ? itemRepository.findWithBookingsByUserId(ownerId, 0L, OffsetPageRequest.of(from, size))
+                : itemRepository.findWithBookingsByUserId(ownerId, after.getId(), PageRequest.of(0, size));
+        List<ItemDto> itemDtos = ItemMapper.toItemDtoList(items);
 
         List<Comment> comments = commentRepository.findAllByItemIdIn(
                 items.stream()
@@ -195,39 +244,29 @@ public class ItemServiceImpl implements ItemService {
                         .collect(Collectors.toList()),
                 Sort.by(Sort.Direction.ASC, "created"));
 
-        itemDtos.forEach(itemDto -> {
-            setBookings(itemDto, bookingShortDtos);
-            setComments(itemDto, comments);
-        });
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < items.size(); i++) {
+            setBookings(itemDtos.get(i), items.get(i), now);
+            ItemDtoJoin.setComments(itemDtos.get(i), comments);
+        }
 
         return itemDtos;
     }
 
     private User getUserById(Long userId) {
-        return userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        return userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
     }
 
     private void checkUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.existsById(userId)) {
             throw new UserNotFoundException(userId);
         }
     }
 
-    private void setBookings(ItemDto itemDto, List<BookingShortDto> bookings) {
-        itemDto.setLastBooking(bookings.stream()
-                .filter(booking -> booking.getItem().getId().equals(itemDto.getId()) &&
-                        booking.getStart().isBefore(LocalDateTime.now()))
-                .reduce((a, b) -> b).orElse(null));
-        itemDto.setNextBooking(bookings.stream()
-                .filter(booking -> booking.getItem().getId().equals(itemDto.getId()) &&
-                        booking.getStart().isAfter(LocalDateTime.now()))
-                .reduce((a, b) -> a).orElse(null));
-    }
-
-    private void setComments(ItemDto itemDto, List<Comment> comments) {
-        itemDto.setComments(comments.stream()
-                .filter(comment -> comment.getItem().getId().equals(itemDto.getId()))
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList()));
+    private void setBookings(ItemDto itemDto, Item item, LocalDateTime now) {
+        if (itemBookingPointers.isStale(item, now)) {
+            itemBookingPointers.refresh(item, now);
+        }
+        ItemDtoJoin.setBookings(itemDto, item);
     }
 }
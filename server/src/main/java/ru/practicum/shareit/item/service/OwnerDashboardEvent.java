@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR: сборка списка вещей владельца с бронированиями и отзывами (ItemServiceImpl.getItemsByOwner)
+ */
+
+@Name("ru.practicum.shareit.OwnerDashboard")
+@Label("Owner Dashboard")
+@Category({"ShareIt", "Item"})
+@Description("Список вещей владельца с последним и следующим бронированием и отзывами")
+@StackTrace(false)
+class OwnerDashboardEvent extends Event {
+    @Label("Owner Id")
+    long ownerId;
+
+    @Label("Dashboard Query")
+    @Description("Список собран одним запросом ItemDashboardRepository, а не из сущностей")
+    boolean dashboardQuery;
+
+    @Label("Keyset")
+    @Description("Страница по курсору after, а не по смещению from")
+    boolean keyset;
+
+    @Label("Page Size")
+    int size;
+
+    @Label("Items")
+    int items;
+}
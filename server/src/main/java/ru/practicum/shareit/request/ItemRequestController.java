@@ -2,13 +2,15 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.request.dto.RequestDtoResponseWithItem;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.utilitary.OffsetPageRequest;
+import ru.practicum.shareit.utilitary.PageCursor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
@@ -21,6 +23,8 @@ import static ru.practicum.shareit.utilitary.Constants.HEADER_USER_ID;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class ItemRequestController {
 
+    private static final Sort CREATED_DESC = Sort.by(Sort.Direction.DESC, "created", "id");
+
     private final ItemRequestService itemRequestService;
 
     @PostMapping
@@ -31,23 +35,25 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<RequestDtoResponseWithItem> getPrivateRequests(
+    public ResponseEntity<List<RequestDtoResponseWithItem>> getPrivateRequests(
             @RequestHeader(HEADER_USER_ID) Long requesterId,
             @RequestParam(value = "from", defaultValue = "0") Integer from,
-            @RequestParam(value = "size", defaultValue = "10") Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") Integer size,
+            @RequestParam(value = "after", required = false) String after) {
         log.info("GET: request to the endpoint was received: '/requests' get private requests");
-        return itemRequestService.getPrivateRequests(PageRequest.of(from / size, size)
-                .withSort(Sort.by("created").descending()), requesterId);
+        return PageCursor.page(itemRequestService.getPrivateRequests(OffsetPageRequest.of(from, size, CREATED_DESC),
+                PageCursor.decodeWithTimestamp(after), requesterId), size, request -> PageCursor.of(request.getCreated(), request.getId()));
     }
 
     @GetMapping("all")
-    public List<RequestDtoResponseWithItem> getOtherRequests(
+    public ResponseEntity<List<RequestDtoResponseWithItem>> getOtherRequests(
             @RequestHeader(HEADER_USER_ID) Long requesterId,
             @RequestParam(value = "from", defaultValue = "0") Integer from,
-            @RequestParam(value = "size", defaultValue = "10") Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") Integer size,
+            @RequestParam(value = "after", required = false) String after) {
         log.info("GET: request to the endpoint was received: '/requests' get other requests");
-        return itemRequestService.getOtherRequests(PageRequest.of(
-                from / size, size, Sort.by(Sort.Direction.DESC, "created")), requesterId);
+        return PageCursor.page(itemRequestService.getOtherRequests(OffsetPageRequest.of(from, size, CREATED_DESC),
+                PageCursor.decodeWithTimestamp(after), requesterId), size, request -> PageCursor.of(request.getCreated(), request.getId()));
     }
 
     @GetMapping("{requestId}")
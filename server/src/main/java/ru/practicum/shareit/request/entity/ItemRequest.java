@@ -3,6 +3,9 @@ package ru.practicum.shareit.request.entity;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.user.entity.User;
 
@@ -13,6 +16,8 @@ import java.util.Set;
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "requests")
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Table(name = "requests")
 public class ItemRequest {
@@ -28,6 +33,11 @@ public class ItemRequest {
     private User requester;
     @Column
     private LocalDateTime created;
+    /**
+     * Вещи страницы запросов догружаются одним IN-запросом; размер пачки - максимальный размер страницы в gateway
+     */
+    @BatchSize(size = 20)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "requests.items")
     @OneToMany(mappedBy = "request", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private Set<Item> items;
 }
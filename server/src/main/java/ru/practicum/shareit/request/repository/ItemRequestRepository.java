@@ -2,12 +2,26 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.entity.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest,Long> {
     List<ItemRequest> findAllByRequesterId(Pageable pageable, Long requesterId);
 
     List<ItemRequest> findAllByRequesterIdNot(Pageable pageable, Long requesterId);
+
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id = ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdAfter(Long requesterId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdNotAfter(Long requesterId, LocalDateTime created, Long id, Pageable pageable);
 }
@@ -1,18 +1,19 @@
 package ru.practicum.shareit.request.service;
 
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.request.dto.RequestDtoResponseWithItem;
+import ru.practicum.shareit.utilitary.PageCursor;
 
 import java.util.List;
 
 public interface ItemRequestService {
     ItemRequestDtoResponse createItemRequest(ItemRequestDto itemRequestDto, Long requesterId);
 
-    List<RequestDtoResponseWithItem> getPrivateRequests(PageRequest pageRequest, Long requesterId);
+    List<RequestDtoResponseWithItem> getPrivateRequests(Pageable pageable, PageCursor after, Long requesterId);
 
-    List<RequestDtoResponseWithItem> getOtherRequests(PageRequest pageRequest, Long requesterId);
+    List<RequestDtoResponseWithItem> getOtherRequests(Pageable pageable, PageCursor after, Long requesterId);
 
     RequestDtoResponseWithItem getItemRequest(Long userId, Long requestId);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
@@ -13,7 +14,8 @@ import ru.practicum.shareit.request.entity.ItemRequest;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.entity.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+import ru.practicum.shareit.utilitary.PageCursor;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
@@ -23,13 +25,13 @@ import java.util.List;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRequestMapper mapper;
 
     @Override
     @Transactional
     public ItemRequestDtoResponse createItemRequest(ItemRequestDto itemRequestDto, Long requesterId) {
-        User user = userRepository.findById(requesterId).orElseThrow(() -> new UserNotFoundException(requesterId));
+        User user = userCache.findById(requesterId).orElseThrow(() -> new UserNotFoundException(requesterId));
         ItemRequest newRequest = mapper.mapToItemRequest(itemRequestDto);
         newRequest.setRequester(user);
         newRequest.setCreated(LocalDateTime.now());
@@ -38,22 +40,30 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     @Transactional
-    public List<RequestDtoResponseWithItem> getPrivateRequests(PageRequest pageRequest, Long requesterId) {
-        userRepository.findById(requesterId).orElseThrow(() -> new UserNotFoundException(requesterId));
-        return mapper.mapToRequestDtoResponseWithItem(itemRequestRepository.findAllByRequesterId(pageRequest, requesterId));
+    public List<RequestDtoResponseWithItem> getPrivateRequests(Pageable pageable, PageCursor after, Long requesterId) {
+        userCache.findById(requesterId).orElseThrow(() -> new UserNotFoundException(requesterId));
+        if (after != null) {
+            return mapper.mapToRequestDtoResponseWithItem(itemRequestRepository.findAllByRequesterIdAfter(
+                    requesterId, after.getTimestamp(), after.getId(), PageRequest.of(0, pageable.getPageSize())));
+        }
+        return mapper.mapToRequestDtoResponseWithItem(itemRequestRepository.findAllByRequesterId(pageable, requesterId));
     }
 
     @Override
     @Transactional
-    public List<RequestDtoResponseWithItem> getOtherRequests(PageRequest pageRequest, Long requesterId) {
-        userRepository.findById(requesterId).orElseThrow(() -> new UserNotFoundException(requesterId));
-        return mapper.mapToRequestDtoResponseWithItem(itemRequestRepository.findAllByRequesterIdNot(pageRequest, requesterId));
+    public List<RequestDtoResponseWithItem> getOtherRequests(Pageable pageable, PageCursor after, Long requesterId) {
+        userCache.findById(requesterId).orElseThrow(() -> new UserNotFoundException(requesterId));
+        if (after != null) {
+            return mapper.mapToRequestDtoResponseWithItem(itemRequestRepository.findAllByRequesterIdNotAfter(
+                    requesterId, after.getTimestamp(), after.getId(), PageRequest.of(0, pageable.getPageSize())));
+        }
+        return mapper.mapToRequestDtoResponseWithItem(itemRequestRepository.findAllByRequesterIdNot(pageable, requesterId));
     }
 
     @Override
     @Transactional
     public RequestDtoResponseWithItem getItemRequest(Long userId, Long requestId) {
-        userRepository.findById(userId).orElseThrow(
+        userCache.findById(userId).orElseThrow(
                 () -> new UserNotFoundException(userId));
         return mapper.mapToRequestDtoResponseWithItem(
                 itemRequestRepository.findById(requestId)
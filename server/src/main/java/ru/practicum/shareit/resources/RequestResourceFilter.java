@@ -0,0 +1,73 @@
+package ru.practicum.shareit.resources;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Замеряет байты, выделенные потоком запроса (ThreadMXBean.getThreadAllocatedBytes), и его процессорное время
+ * от входа в фильтр до записи ответа, и передает их в RequestResourceStats по маршруту запроса.
+ * Сериализация тела ответа входит в замер, как и все фильтры после этого.
+ */
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.request-resources", name = "enabled", havingValue = "true")
+public class RequestResourceFilter extends OncePerRequestFilter {
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    private final RequestResourceStats stats;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (THREADS == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long cpuBefore = THREADS.getCurrentThreadCpuTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            long cpu = THREADS.getCurrentThreadCpuTime() - cpuBefore;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+            stats.record(request.getMethod(), pattern == null ? "UNKNOWN" : pattern.toString(),
+                    handler instanceof HandlerMethod ? handlerName((HandlerMethod) handler) : null,
+                    allocated, cpu);
+        }
+    }
+
+    private static String handlerName(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+
+    /**
+     * null, если JVM не считает выделенную память или процессорное время потоков
+     */
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isCurrentThreadCpuTimeSupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threads.setThreadCpuTimeEnabled(true);
+        return threads;
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.resources;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Выделенная память и процессорное время запросов по маршрутам (метод и шаблон пути контроллера).
+ * Итоги с момента старта или последнего сброса отдает endpoint /actuator/allocations,
+ * распределения по запросам - метрики http.server.requests.allocated и http.server.requests.cpu
+ * с тегами method и uri, как у http.server.requests.
+ */
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.request-resources", name = "enabled", havingValue = "true")
+public class RequestResourceStats {
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    void record(String method, String uri, String handler, long allocatedBytes, long cpuNanos) {
+        routes.computeIfAbsent(method + " " + uri, route -> new Route(method, uri, handler))
+                .record(allocatedBytes, cpuNanos);
+    }
+
+    /**
+     * Маршруты по убыванию выделенной памяти
+     */
+    public List<RouteResources> top(int limit) {
+        return routes.entrySet().stream()
+                .map(route -> route.getValue().snapshot(route.getKey()))
+                .filter(route -> route.getRequests() > 0)
+                .sorted(Comparator.comparingLong(RouteResources::getAllocatedBytes).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Обнуляет итоги endpoint, например перед сравнительным прогоном; метрики не сбрасываются
+     */
+    public void reset() {
+        routes.values().forEach(Route::reset);
+    }
+
+    private class Route {
+        private final String handler;
+        private final DistributionSummary allocatedSummary;
+        private final Timer cpuTimer;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Long::max, 0);
+        private final LongAdder cpuNanos = new LongAdder();
+
+        Route(String method, String uri, String handler) {
+            this.handler = handler;
+            allocatedSummary = DistributionSummary.builder("http.server.requests.allocated")
+                    .description("Bytes allocated by the request thread")
+                    .baseUnit("bytes")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry);
+            cpuTimer = Timer.builder("http.server.requests.cpu")
+                    .description("CPU time of the request thread")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry);
+        }
+
+        void record(long allocated, long cpu) {
+            requests.increment();
+            allocatedBytes.add(allocated);
+            maxAllocatedBytes.accumulate(allocated);
+            cpuNanos.add(cpu);
+            allocatedSummary.record(allocated);
+            cpuTimer.record(cpu, TimeUnit.NANOSECONDS);
+        }
+
+        void reset() {
+            requests.reset();
+            allocatedBytes.reset();
+            maxAllocatedBytes.reset();
+            cpuNanos.reset();
+        }
+
+        RouteResources snapshot(String route) {
+            long count = requests.sum();
+            long allocated = allocatedBytes.sum();
+            long cpu = cpuNanos.sum();
+            return RouteResources.builder()
+                    .route(route)
+                    .handler(handler)
+                    .requests(count)
+                    .allocatedBytes(allocated)
+                    .allocatedBytesPerRequest(count == 0 ? 0 : allocated / count)
+                    .maxAllocatedBytes(maxAllocatedBytes.get())
+                    .cpuMillis(TimeUnit.NANOSECONDS.toMillis(cpu))
+                    .cpuMicrosPerRequest(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(cpu / count))
+                    .build();
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class RouteResources {
+        private final String route;
+        private final String handler;
+        private final long requests;
+        private final long allocatedBytes;
+        private final long allocatedBytesPerRequest;
+        private final long maxAllocatedBytes;
+        private final long cpuMillis;
+        private final long cpuMicrosPerRequest;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.resources;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/allocations?limit=N - маршруты с наибольшей выделенной памятью (по умолчанию 10),
+ * DELETE /actuator/allocations - сброс итогов
+ */
+
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "allocations")
+@ConditionalOnProperty(prefix = "shareit.request-resources", name = "enabled", havingValue = "true")
+public class RequestResourcesEndpoint {
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final RequestResourceStats stats;
+
+    @ReadOperation
+    public List<RequestResourceStats.RouteResources> top(@Nullable Integer limit) {
+        return stats.top(limit == null ? DEFAULT_LIMIT : limit);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        stats.reset();
+    }
+}
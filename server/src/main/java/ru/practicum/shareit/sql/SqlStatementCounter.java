@@ -0,0 +1,46 @@
+package ru.practicum.shareit.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Считает SQL-выражения, выполненные в рамках HTTP-запроса.
+ * Сам оборачивает каждый DataSource прокси datasource-proxy, не полагаясь на обертку Sleuth
+ * (spring.sleuth.jdbc.enabled): с выключенной трассировкой метрика иначе записывала бы нули.
+ * Каждый вызов execute* увеличивает счетчик текущего потока, пакет executeBatch считается одним выражением.
+ * Счетчик открывает и закрывает SqlStatementFilter, вне запроса (планировщик, инициализация) выражения не считаются.
+ */
+
+@Component
+public class SqlStatementCounter implements BeanPostProcessor {
+    private static final ThreadLocal<int[]> COUNTER = new ThreadLocal<>();
+
+    static void start() {
+        COUNTER.set(new int[1]);
+    }
+
+    static int stop() {
+        int[] counter = COUNTER.get();
+        COUNTER.remove();
+        return counter == null ? 0 : counter[0];
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create((DataSource) bean)
+                .name(beanName)
+                .afterQuery((execInfo, queryInfoList) -> {
+                    int[] counter = COUNTER.get();
+                    if (counter != null) {
+                        counter[0]++;
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Локальный экспорт span без внешнего бэкенда трассировки: каждый завершенный span пишется в лог
+ * одной строкой JSON в формате Zipkin v2. Span gateway и server одного запроса связаны общим traceId
+ * (заголовок W3C traceparent), поэтому трассу собирает grep по traceId в логах обоих модулей.
+ * Отключается уровнем логирования ru.practicum.shareit.tracing=WARN.
+ */
+
+@Slf4j
+@Component
+public class LoggingSpanHandler extends SpanHandler {
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.FINISHED && log.isInfoEnabled()) {
+            log.info("Span {}", span);
+        }
+        return true;
+    }
+}
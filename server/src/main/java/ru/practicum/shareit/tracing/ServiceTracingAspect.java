@@ -0,0 +1,38 @@
+package ru.practicum.shareit.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Отдельный span на каждый вызов метода сервиса (UserService, ItemService, BookingService,
+ * ItemRequestService) внутри span HTTP-запроса: в трассе видно время сервиса отдельно от контроллера,
+ * а span JDBC-выражений вложены в span сервиса.
+ */
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceTracingAspect {
+    private final Tracer tracer;
+
+    @Around("execution(public * ru.practicum.shareit..service.*Service.*(..))")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        Span span = tracer.nextSpan()
+                .name(joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                        + joinPoint.getSignature().getName())
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -27,6 +28,16 @@ public class UserController {
         return userService.getUsers();
     }
 
+    /**
+     * Множество id пользователей для отсева неизвестных X-Sharer-User-Id в gateway:
+     * байты BitSet.toByteArray(), бит id установлен, если пользователь существует
+     */
+    @GetMapping(path = "ids", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] getUserIds() {
+        log.debug("GET: request to the endpoint was received: '/users/ids' to receive user ids");
+        return userService.getUserIds().toByteArray();
+    }
+
     @GetMapping("{userId}")
     public UserDto getUserById(@PathVariable Long userId) {
         log.info("GET: request to the endpoint was received: '/users' to receive the user with ID={}", userId);
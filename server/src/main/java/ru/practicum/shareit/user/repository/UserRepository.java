@@ -1,10 +1,15 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.user.entity.User;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByEmail(String email);
+
+    @Query("select u.id from User u")
+    Stream<Long> streamAllIds();
 }
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Кэш пользователей перед UserRepository для проверки X-Sharer-User-Id в сервисах.
+ * Caffeine (вытеснение W-TinyLFU) хранит снимки найденных пользователей не дольше expire-after-write:
+ * изменения и удаление через UserServiceImpl сбрасывают запись сразу, а срок жизни ограничивает
+ * устаревание, если пользователя изменила другая реплика. Отсутствие пользователя не кэшируется.
+ * Метрики cache.gets (hit/miss), cache.evictions и т.п. с тегом cache=users.
+ */
+
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final Cache<Long, User> users;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${shareit.user-cache.maximum-size}") long maximumSize,
+                     @Value("${shareit.user-cache.expire-after-write}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    /**
+     * Копия снимка пользователя: отсоединенная сущность, годится как ссылка (booker, owner, requester)
+     * в сохраняемых сущностях, изменять ее бессмысленно
+     */
+    public Optional<User> findById(Long userId) {
+        User user = users.getIfPresent(userId);
+        if (user == null) {
+            user = userRepository.findById(userId).map(UserCache::copy).orElse(null);
+            if (user == null) {
+                return Optional.empty();
+            }
+            users.put(userId, user);
+        }
+        return Optional.of(copy(user));
+    }
+
+    public boolean existsById(Long userId) {
+        return findById(userId).isPresent();
+    }
+
+    /**
+     * Сбрасывает запись сразу и еще раз после фиксации транзакции: иначе параллельный запрос
+     * мог бы успеть положить в кэш старую версию, прочитанную до фиксации
+     */
+    public void evict(Long userId) {
+        users.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    users.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.service;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.BitSet;
 import java.util.List;
 
 @Service
@@ -17,4 +18,11 @@ public interface UserService {
     UserDto update(Long userId, UserDto userDto);
 
     void delete(Long userId);
+
+    /**
+     * Множество id всех пользователей: бит id установлен, если пользователь существует.
+     * Индекс BitSet - int, поэтому id больше Integer.MAX_VALUE - 1 в множество не попадают: gateway не считает
+     * их неизвестными и отправляет запросы с ними на сервер
+     */
+    BitSet getUserIds();
 }
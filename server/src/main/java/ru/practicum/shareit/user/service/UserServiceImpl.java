@@ -4,14 +4,17 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.EmailAlreadyUsedException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.service.ItemCardCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.user.dto.UserMapper.fromUserDto;
 import static ru.practicum.shareit.user.dto.UserMapper.toUserDtoList;
@@ -19,8 +22,11 @@ import static ru.practicum.shareit.user.dto.UserMapper.toUserDtoList;
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final long MAX_BIT_ID = Integer.MAX_VALUE - 1L;
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ItemCardCache itemCardCache;
 
     @Override
     @Transactional
@@ -57,6 +63,8 @@ public class UserServiceImpl implements UserService {
 
         if (user.getName() != null) {
             userToUpdate.setName(user.getName());
+            // имя пользователя - authorName в отзывах закэшированных карточек вещей
+            itemCardCache.evictAll();
         }
 
         if (user.getEmail() != null) {
@@ -68,6 +76,7 @@ public class UserServiceImpl implements UserService {
             userToUpdate.setEmail(user.getEmail());
         }
         userRepository.save(userToUpdate);
+        userCache.evict(userId);
         return UserMapper.toUserDto(userToUpdate);
     }
 
@@ -76,5 +85,17 @@ public class UserServiceImpl implements UserService {
     public void delete(Long userId) {
         userRepository.delete(userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId)));
+        userCache.evict(userId);
+        itemCardCache.evictAll();
+    }
+
+    @Override
+    @Transactional
+    public BitSet getUserIds() {
+        BitSet ids = new BitSet();
+        try (Stream<Long> stream = userRepository.streamAllIds()) {
+            stream.filter(id -> id >= 0 && id <= MAX_BIT_ID).forEach(id -> ids.set(id.intValue()));
+        }
+        return ids;
     }
 }
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.utilitary;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.IncorrectCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Непрозрачный курсор keyset-пагинации (параметр after): ключ сортировки последней записи страницы.
+ * Для бронирований это (start, id), для запросов (created, id), для выдачи ItemSearchIndex (score, id),
+ * для остальных списков вещей только id.
+ * Курсор следующей страницы отдается в заголовке X-Next-Cursor, если страница заполнена целиком.
+ */
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor {
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    private static final String SEPARATOR = "_";
+    private static final String SCORE_SEPARATOR = "~";
+
+    private final LocalDateTime timestamp;
+    private final Double score;
+    private final Long id;
+
+    public static PageCursor of(LocalDateTime timestamp, Long id) {
+        return new PageCursor(timestamp, null, id);
+    }
+
+    /**
+     * @param score оценка записи в выдаче, null - курсор только по id
+     */
+    public static PageCursor of(Double score, Long id) {
+        return new PageCursor(null, score, id);
+    }
+
+    public static PageCursor of(Long id) {
+        return new PageCursor(null, null, id);
+    }
+
+    public static PageCursor decode(String token) {
+        PageCursor cursor = parse(token);
+        if (cursor != null && cursor.timestamp != null) {
+            throw new IncorrectCursorException("Incorrect cursor: " + token);
+        }
+        return cursor;
+    }
+
+    public static PageCursor decodeWithTimestamp(String token) {
+        PageCursor cursor = parse(token);
+        if (cursor != null && cursor.timestamp == null) {
+            throw new IncorrectCursorException("Incorrect cursor: " + token);
+        }
+        return cursor;
+    }
+
+    private static PageCursor parse(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int scoreSeparator = value.lastIndexOf(SCORE_SEPARATOR);
+            if (scoreSeparator >= 0) {
+                return of(Double.valueOf(value.substring(0, scoreSeparator)),
+                        Long.valueOf(value.substring(scoreSeparator + 1)));
+            }
+            int separator = value.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.valueOf(value));
+            }
+            return of(LocalDateTime.parse(value.substring(0, separator)), Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IncorrectCursorException("Incorrect cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = timestamp != null ? timestamp + SEPARATOR + id
+                : score != null ? score + SCORE_SEPARATOR + id
+                : String.valueOf(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static <T> ResponseEntity<List<T>> page(List<T> content, int size, Function<T, PageCursor> cursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!content.isEmpty() && content.size() == size) {
+            response.header(HEADER_NEXT_CURSOR, cursor.apply(content.get(content.size() - 1)).encode());
+        }
+        return response.body(content);
+    }
+}
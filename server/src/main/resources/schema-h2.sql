@@ -0,0 +1,2 @@
+CREATE TRIGGER trg_bookings_approved_overlap BEFORE INSERT, UPDATE ON bookings
+    FOR EACH ROW CALL 'ru.practicum.shareit.booking.repository.ApprovedBookingOverlapTrigger';
@@ -0,0 +1,113 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX ix_items_search_vector ON items USING GIN (search_vector);
+CREATE INDEX ix_items_name_trgm ON items USING GIN (name gin_trgm_ops);
+CREATE INDEX ix_items_description_trgm ON items USING GIN (description gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- В PostgreSQL bookings секционируется по start_date помесячно. Секции создает и отсоединяет
+-- BookingPartitionManager через create_bookings_partition/detach_bookings_partitions,
+-- строки вне существующих секций попадают в bookings_default.
+DROP TABLE bookings CASCADE;
+CREATE TABLE bookings (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE,
+  item_id bigint NOT NULL,
+  booker_id bigint NOT NULL,
+  status varchar(40) NOT NULL,
+  updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT LOCALTIMESTAMP NOT NULL,
+  CONSTRAINT pk_bookings PRIMARY KEY (id, start_date),
+  CONSTRAINT fk_booking_booker_id FOREIGN KEY (booker_id) REFERENCES users (id),
+  CONSTRAINT fk_booking_item_id FOREIGN KEY (item_id) REFERENCES items (id)
+) PARTITION BY RANGE (start_date);
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX ix_bookings_booker_start ON bookings (booker_id, start_date DESC);
+CREATE INDEX ix_bookings_item_start ON bookings (item_id, start_date DESC);
+CREATE INDEX ix_bookings_start_date ON bookings (start_date);
+CREATE INDEX ix_bookings_end_date ON bookings (end_date);
+CREATE INDEX ix_bookings_updated_at ON bookings (updated_at);
+
+-- Исключающее ограничение нельзя объявить на секционированной таблице, поэтому интервалы
+-- подтвержденных бронирований дублируются в booking_slots триггером trg_bookings_sync_slot.
+-- Пересечение по-прежнему завершается ошибкой 23P01 (exclusion_violation).
+CREATE TABLE booking_slots (
+    booking_id bigint NOT NULL,
+    item_id bigint NOT NULL,
+    period tsrange NOT NULL,
+    CONSTRAINT pk_booking_slots PRIMARY KEY (booking_id),
+    CONSTRAINT ex_booking_slots_overlap EXCLUDE USING gist (item_id WITH =, period WITH &&)
+);
+
+CREATE OR REPLACE FUNCTION bookings_sync_slot() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        DELETE FROM booking_slots WHERE booking_id = OLD.id;
+    END IF;
+    IF TG_OP <> 'DELETE' AND NEW.status = 'APPROVED' THEN
+        INSERT INTO booking_slots (booking_id, item_id, period)
+        VALUES (NEW.id, NEW.item_id, tsrange(NEW.start_date, NEW.end_date));
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_bookings_sync_slot AFTER INSERT OR UPDATE OR DELETE ON bookings
+    FOR EACH ROW EXECUTE FUNCTION bookings_sync_slot();
+
+CREATE OR REPLACE FUNCTION create_bookings_partition(month date) RETURNS boolean AS $$
+DECLARE
+    lower_bound timestamp := date_trunc('month', month);
+    upper_bound timestamp := date_trunc('month', month) + interval '1 month';
+    partition_name text := 'bookings_p' || to_char(lower_bound, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        IF NOT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(partition_name)
+                                                  AND inhparent = 'bookings'::regclass) THEN
+            RAISE EXCEPTION 'Table % exists but is not attached to bookings', partition_name;
+        END IF;
+        RETURN false;
+    END IF;
+    -- строки этого месяца, уже попавшие в bookings_default, переносятся в новую секцию;
+    -- удаление из bookings_default снимает их слоты, поэтому слоты вставляются заново
+    EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM bookings_default WHERE start_date >= %L AND start_date < %L RETURNING *) ' ||
+                   'INSERT INTO %I SELECT * FROM moved', lower_bound, upper_bound, partition_name);
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, lower_bound, upper_bound);
+    EXECUTE format('INSERT INTO booking_slots (booking_id, item_id, period) ' ||
+                   'SELECT id, item_id, tsrange(start_date, end_date) FROM %I WHERE status = ''APPROVED''',
+                   partition_name);
+    RETURN true;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION detach_bookings_partitions(before timestamp) RETURNS integer AS $$
+DECLARE
+    partition record;
+    detached integer := 0;
+BEGIN
+    FOR partition IN
+        SELECT c.relname FROM pg_inherits AS i JOIN pg_class AS c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bookings'::regclass
+          AND c.relname ~ '^bookings_p[0-9]{6}$'
+          AND to_date(substr(c.relname, 11), 'YYYYMM') + interval '1 month' <= before
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('UPDATE items SET last_booking_id = NULL WHERE last_booking_id IN (SELECT id FROM %I)',
+                       partition.relname);
+        EXECUTE format('DELETE FROM booking_slots WHERE booking_id IN (SELECT id FROM %I)', partition.relname);
+        EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', partition.relname);
+        detached := detached + 1;
+    END LOOP;
+    RETURN detached;
+END
+$$ LANGUAGE plpgsql;
@@ -27,11 +27,15 @@ CREATE TABLE items (
      is_available BOOLEAN,
      user_id bigint NOT NULL,
      request_id bigint,
+     last_booking_id bigint,
+     next_booking_id bigint,
+     updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT LOCALTIMESTAMP NOT NULL,
      CONSTRAINT pk_items PRIMARY KEY (id),
      CONSTRAINT fk_item_user_id FOREIGN KEY (user_id) REFERENCES users (id),
      CONSTRAINT fk_item_request_id FOREIGN KEY (request_id) REFERENCES requests (id)
 );
 
+drop table if exists booking_slots cascade;
 drop table if exists bookings cascade;
 CREATE TABLE bookings (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -40,11 +44,44 @@ CREATE TABLE bookings (
   item_id bigint NOT NULL,
   booker_id bigint NOT NULL,
   status varchar(40) NOT NULL,
+  updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT LOCALTIMESTAMP NOT NULL,
   CONSTRAINT pk_bookings PRIMARY KEY (id),
   CONSTRAINT fk_booking_booker_id FOREIGN KEY (booker_id) REFERENCES users (id),
   CONSTRAINT fk_booking_item_id FOREIGN KEY (item_id) REFERENCES items (id)
 );
 
+drop table if exists bookings_archive cascade;
+CREATE TABLE bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE,
+  item_id bigint NOT NULL,
+  booker_id bigint NOT NULL,
+  status varchar(40) NOT NULL,
+  CONSTRAINT pk_bookings_archive PRIMARY KEY (id),
+  CONSTRAINT fk_booking_archive_booker_id FOREIGN KEY (booker_id) REFERENCES users (id),
+  CONSTRAINT fk_booking_archive_item_id FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE INDEX ix_requests_requester_created ON requests (requester_id, created DESC, id DESC);
+CREATE INDEX ix_requests_created ON requests (created DESC, id DESC);
+
+CREATE INDEX ix_items_user_id ON items (user_id, id);
+CREATE INDEX ix_items_request_id ON items (request_id);
+CREATE INDEX ix_items_next_booking_id ON items (next_booking_id);
+CREATE INDEX ix_items_last_booking_id ON items (last_booking_id);
+CREATE INDEX ix_items_updated_at ON items (updated_at);
+
+CREATE INDEX ix_bookings_booker_start ON bookings (booker_id, start_date DESC);
+CREATE INDEX ix_bookings_item_start ON bookings (item_id, start_date DESC);
+CREATE INDEX ix_bookings_start_date ON bookings (start_date);
+CREATE INDEX ix_bookings_end_date ON bookings (end_date);
+CREATE INDEX ix_bookings_updated_at ON bookings (updated_at);
+
+CREATE INDEX ix_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC);
+CREATE INDEX ix_bookings_archive_item_start ON bookings_archive (item_id, start_date DESC);
+CREATE INDEX ix_bookings_archive_start_date ON bookings_archive (start_date);
+
 drop table if exists comments cascade;
 CREATE TABLE comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -56,3 +93,5 @@ CREATE TABLE comments (
     CONSTRAINT fk_comment_item_id FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_comment_author_id FOREIGN KEY (author_id) REFERENCES users (id)
 );
+
+CREATE INDEX ix_comments_item_created ON comments (item_id, created);
@@ -0,0 +1,240 @@
+package ru.practicum.shareit.booking.schedule;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.item.entity.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1);
+
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findAllByStatusInAndEndIsAfter(any(), any())).thenReturn(Collections.emptyList());
+        index = new BookingIntervalIndex(bookingRepository, Duration.ofMinutes(5));
+        index.load();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void overlappingApprovesFromTwoThreadsReserveOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (long itemId = 1; itemId <= 200; itemId++) {
+                Booking first = booking(itemId * 2, itemId, START, START.plusHours(2));
+                Booking second = booking(itemId * 2 + 1, itemId, START.plusHours(1), START.plusHours(3));
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<Boolean> firstApproved = executor.submit(() -> approveAfter(barrier, first));
+                Future<Boolean> secondApproved = executor.submit(() -> approveAfter(barrier, second));
+
+                assertEquals(1, (firstApproved.get(5, TimeUnit.SECONDS) ? 1 : 0)
+                        + (secondApproved.get(5, TimeUnit.SECONDS) ? 1 : 0), "item " + itemId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rolledBackApproveReleasesReservation() {
+        Booking booking = booking(1L, 1L, START, START.plusHours(2));
+        index.addWaiting(booking);
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> index.approve(booking));
+        assertThrows(BookingConflictException.class, () -> index.checkAvailable(1L, START, START.plusHours(1)));
+        complete(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertDoesNotThrow(() -> index.checkAvailable(1L, START, START.plusHours(1)));
+        assertDoesNotThrow(() -> index.approve(booking(2L, 1L, START.plusHours(1), START.plusHours(3))));
+    }
+
+    @Test
+    void committedApproveKeepsReservation() {
+        Booking booking = booking(1L, 1L, START, START.plusHours(2));
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> index.approve(booking));
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThrows(BookingConflictException.class,
+                () -> index.approve(booking(2L, 1L, START.plusHours(1), START.plusHours(3))));
+    }
+
+    @Test
+    void rejectOfApprovedIntervalFreesSlotAfterCommit() {
+        Booking approved = booking(1L, 1L, START, START.plusHours(2));
+        index.approve(approved);
+        approved.setStatus(Status.APPROVED);
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> index.reject(approved));
+        assertThrows(BookingConflictException.class, () -> index.checkAvailable(1L, START, START.plusHours(1)));
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertDoesNotThrow(() -> index.checkAvailable(1L, START, START.plusHours(1)));
+        assertDoesNotThrow(() -> index.approve(booking(2L, 1L, START.plusHours(1), START.plusHours(3))));
+        assertEquals(List.of(new TimeSlot(START, START.plusHours(1))),
+                index.findFreeSlots(1L, START, START.plusHours(1)));
+    }
+
+    @Test
+    void rolledBackRejectKeepsReservation() {
+        Booking approved = booking(1L, 1L, START, START.plusHours(2));
+        index.approve(approved);
+        approved.setStatus(Status.APPROVED);
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> index.reject(approved));
+        complete(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThrows(BookingConflictException.class, () -> index.checkAvailable(1L, START, START.plusHours(1)));
+    }
+
+    @Test
+    void refreshPicksUpBookingsChangedByAnotherReplica() {
+        Booking approved = booking(1L, 1L, START, START.plusHours(2));
+        approved.setStatus(Status.APPROVED);
+        changedElsewhere(approved);
+        index.refresh();
+
+        assertThrows(BookingConflictException.class, () -> index.checkAvailable(1L, START, START.plusHours(1)));
+        assertEquals(List.of(new TimeSlot(START.plusHours(2), START.plusHours(3))),
+                index.findFreeSlots(1L, START, START.plusHours(3)));
+
+        approved.setStatus(Status.REJECTED);
+        changedElsewhere(approved);
+        index.refresh();
+
+        assertDoesNotThrow(() -> index.checkAvailable(1L, START, START.plusHours(1)));
+        assertEquals(List.of(new TimeSlot(START, START.plusHours(3))),
+                index.findFreeSlots(1L, START, START.plusHours(3)));
+    }
+
+    @Test
+    void refreshDoesNotDowngradeUncommittedApprove() {
+        Booking booking = booking(1L, 1L, START, START.plusHours(2));
+        index.addWaiting(booking);
+        inTransaction(() -> index.approve(booking));
+        changedElsewhere(booking(1L, 1L, START, START.plusHours(2)));
+        index.refresh();
+
+        assertThrows(BookingConflictException.class, () -> index.checkAvailable(1L, START, START.plusHours(1)));
+    }
+
+    @Test
+    void approvedIntervalsWithSameStartAreKeptApart() {
+        Booking first = booking(1L, 1L, START, START.plusHours(2));
+        Booking second = booking(2L, 1L, START, START.plusHours(3));
+        first.setStatus(Status.APPROVED);
+        second.setStatus(Status.APPROVED);
+        index = loaded(first, second);
+
+        index.reject(second);
+
+        assertThrows(BookingConflictException.class,
+                () -> index.checkAvailable(1L, START.plusHours(1), START.plusHours(4)));
+        assertEquals(List.of(new TimeSlot(START.plusHours(2), START.plusHours(4))),
+                index.findFreeSlots(1L, START, START.plusHours(4)));
+    }
+
+    @Test
+    void emptyApprovedIntervalDoesNotHidePreviousOne() {
+        Booking approved = booking(1L, 1L, START, START.plusHours(2));
+        Booking empty = booking(2L, 1L, START.plusHours(1), START.plusHours(1));
+        approved.setStatus(Status.APPROVED);
+        empty.setStatus(Status.APPROVED);
+        index = loaded(approved, empty);
+
+        assertThrows(BookingConflictException.class,
+                () -> index.checkAvailable(1L, START.plusMinutes(90), START.plusHours(3)));
+        assertEquals(List.of(new TimeSlot(START.plusHours(2), START.plusHours(3))),
+                index.findFreeSlots(1L, START.plusMinutes(90), START.plusHours(3)));
+    }
+
+    /**
+     * Следующий refresh прочитает из bookings только эти строки
+     */
+    private void changedElsewhere(Booking... bookings) {
+        when(bookingRepository.findByUpdatedAtAfterAndIdGreaterThanOrderById(any(), any(), any()))
+                .thenReturn(List.of(bookings));
+    }
+
+    private static BookingIntervalIndex loaded(Booking... bookings) {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findAllByStatusInAndEndIsAfter(any(), any())).thenReturn(List.of(bookings));
+        BookingIntervalIndex loaded = new BookingIntervalIndex(bookingRepository, Duration.ofMinutes(5));
+        loaded.load();
+        return loaded;
+    }
+
+    private boolean approveAfter(CyclicBarrier barrier, Booking booking) throws Exception {
+        barrier.await(5, TimeUnit.SECONDS);
+        try {
+            index.approve(booking);
+            return true;
+        } catch (BookingConflictException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Выполняет action с активной синхронизацией транзакции и возвращает зарегистрированные в ней callback
+     */
+    private static List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static Booking booking(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .item(Item.builder().id(itemId).build())
+                .start(start)
+                .end(end)
+                .status(Status.WAITING)
+                .build();
+    }
+}
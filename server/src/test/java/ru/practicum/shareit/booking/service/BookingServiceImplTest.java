@@ -0,0 +1,164 @@
+package ru.practicum.shareit.booking.service;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingOutDto;
+import ru.practicum.shareit.utilitary.OffsetPageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Страницы по смещению на стыке bookings и bookings_archive (BookingServiceImpl.findBookings).
+ * Бронирования 1..12 одного арендатора начинаются с шагом в сутки; в архиве 2, 4, 6 и 8, horizon - начало 8,
+ * правее него в bookings лежат head = 4 записи: 9..12. Ожидаемая страница - срез общего порядка start desc.
+ */
+
+@SpringBootTest
+@Import(BookingServiceImplTest.ArchiveReadHook.class)
+class BookingServiceImplTest {
+    private static final long BOOKER_ID = 1L;
+    private static final int BOOKINGS = 12;
+    private static final int SIZE = 3;
+    private static final LocalDateTime START = LocalDateTime.now().minusYears(2).withNano(0);
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ArchiveReadHook archiveReadHook;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'booker', 'booker@example.com')");
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (2, 'owner', 'owner@example.com')");
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, user_id) "
+                + "VALUES (1, 'drill', 'drill', true, 2)");
+        for (long id = 1; id <= BOOKINGS; id++) {
+            jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                            + "VALUES (?, ?, ?, 1, ?, 'APPROVED')",
+                    id, START.plusDays(id), START.plusDays(id).plusHours(1), BOOKER_ID);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        archiveReadHook.action.set(null);
+        jdbcTemplate.update("DELETE FROM bookings_archive");
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM items");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void pageStartingInsideHead() {
+        archive(2L, 4L, 6L, 8L);
+
+        assertEquals(expected(2), page(2));
+    }
+
+    @Test
+    void pageStartingAtHead() {
+        archive(2L, 4L, 6L, 8L);
+
+        assertEquals(expected(4), page(4));
+    }
+
+    @Test
+    void pageStartingAfterHead() {
+        archive(2L, 4L, 6L, 8L);
+
+        assertEquals(expected(6), page(6));
+        assertEquals(expected(9), page(9));
+        assertEquals(List.of(), page(BOOKINGS));
+    }
+
+    @Test
+    void pageWithEmptyArchive() {
+        assertEquals(expected(0), page(0));
+        assertEquals(expected(6), page(6));
+    }
+
+    @Test
+    void bookingArchivedBetweenHotAndArchiveReadsIsTakenOnce() {
+        archive(2L, 4L, 6L, 8L);
+
+        assertEquals(expected(4), pageArchivingBeforeArchiveRead(4, 7L));
+    }
+
+    @Test
+    void headBookingArchivedBetweenHotAndArchiveReadsIsTakenOnce() {
+        archive(2L, 4L, 6L, 8L);
+
+        assertEquals(expected(2), pageArchivingBeforeArchiveRead(2, 9L));
+    }
+
+    private List<Long> page(int from) {
+        return bookingService.getAllBrookingByBookerId(OffsetPageRequest.of(from, SIZE), null, BOOKER_ID, "ALL")
+                .stream()
+                .map(BookingOutDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> expected(int from) {
+        return IntStream.range(from, Math.min(from + SIZE, BOOKINGS))
+                .mapToObj(offset -> (long) BOOKINGS - offset)
+                .collect(Collectors.toList());
+    }
+
+    private void archive(Long... ids) {
+        for (Long id : ids) {
+            jdbcTemplate.update("INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status) "
+                    + "SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings WHERE id = ?", id);
+            jdbcTemplate.update("DELETE FROM bookings WHERE id = ?", id);
+        }
+    }
+
+    /**
+     * Архиватор переносит бронирование id после чтения bookings, но до чтения архива
+     */
+    private List<Long> pageArchivingBeforeArchiveRead(int from, Long id) {
+        archiveReadHook.action.set(() -> archive(id));
+        List<Long> page = page(from);
+        assertNull(archiveReadHook.action.get(), "archive was not read");
+        return page;
+    }
+
+    /**
+     * Выполняет action один раз перед первой выборкой страницы из bookings_archive (не findHorizon),
+     * в том же потоке и той же транзакции, что и чтение страницы
+     */
+    static class ArchiveReadHook implements QueryExecutionListener {
+        private final AtomicReference<Runnable> action = new AtomicReference<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (queryInfoList.stream().anyMatch(query -> query.getQuery().contains("bookings_archive")
+                    && query.getQuery().contains("order by"))) {
+                Runnable pending = action.getAndSet(null);
+                if (pending != null) {
+                    pending.run();
+                }
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+    }
+}
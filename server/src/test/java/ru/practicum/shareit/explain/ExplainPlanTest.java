@@ -0,0 +1,199 @@
+package ru.practicum.shareit.explain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.entity.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingPointers;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.sql.SqlStatementRecorder;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilitary.OffsetPageRequest;
+import ru.practicum.shareit.utilitary.PageCursor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Планы запросов, которые приложение действительно выполняет, на синтетическом наборе данных.
+ * Методы сервисов и репозиториев вызываются как есть, SqlStatementRecorder записывает выражения
+ * Hibernate и JdbcTemplate с параметрами, и для каждого выполняется EXPLAIN с теми же параметрами.
+ * Только PostgreSQL: mvn -Pexplain test против пустой базы из application.properties,
+ * в обычной сборке тег explain исключен.
+ * Архиватор запускается с age-days=730: в установившемся режиме он переносит за раз около суток истории.
+ */
+
+@Tag("explain")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "shareit.booking.archive.age-days=730")
+@Import(SqlStatementRecorder.class)
+class ExplainPlanTest {
+    private static final Set<String> CHECKED_TABLES = Set.of("users", "requests", "items", "bookings", "comments");
+    /**
+     * Seq Scan по почти пустой таблице (например, по будущей секции bookings) регрессией не считается
+     */
+    private static final long MIN_ROWS = 1000;
+    private static final Sort CREATED_DESC = Sort.by(Sort.Direction.DESC, "created", "id");
+    /**
+     * Владелец вещей 41, 20041, ... и автор запросов 41, 20041, ... в explain/seed.sql
+     */
+    private static final long USER_ID = 42L;
+    private static final long ITEM_ID = 41L;
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemBookingPointers itemBookingPointers;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    private final Map<String, Long> tableRows = new HashMap<>();
+
+    @BeforeAll
+    void seed() {
+        new ResourceDatabasePopulator(new ClassPathResource("explain/seed.sql")).execute(dataSource);
+        jdbcTemplate.query("SELECT relname, reltuples::bigint FROM pg_class WHERE relkind = 'r'",
+                rs -> {
+                    tableRows.put(rs.getString(1), rs.getLong(2));
+                });
+    }
+
+    /**
+     * BookingRepository.findAllByStatusInAndEndIsAfter не проверяется: при старте он читает все активные
+     * бронирования, и в текущей секции bookings последовательное чтение для него - правильный план.
+     * Архиватор идет последним: перенесенные строки делают архив непустым, и остальные выборки
+     * бронирований на этих данных уже не похожи на первые страницы истории.
+     */
+    @TestFactory
+    Stream<DynamicTest> plansDoNotSeqScanLargeTables() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("UserRepository.findByEmail", () -> userRepository.findByEmail("user42@example.com"));
+        calls.put("ItemRequestService.getPrivateRequests", () -> itemRequestService.getPrivateRequests(
+                OffsetPageRequest.of(0, 10, CREATED_DESC), null, USER_ID));
+        calls.put("ItemRequestService.getOtherRequests", () -> itemRequestService.getOtherRequests(
+                OffsetPageRequest.of(0, 10, CREATED_DESC), null, USER_ID));
+        calls.put("ItemRequestService.getOtherRequests(after)", () -> itemRequestService.getOtherRequests(
+                OffsetPageRequest.of(0, 10, CREATED_DESC), PageCursor.of(now.minusDays(1), 1000L), USER_ID));
+        calls.put("ItemService.getItemsByOwner(itemId)", () -> itemService.getItemsByOwner(ITEM_ID, USER_ID));
+        calls.put("ItemService.getItemsByOwner", () -> itemService.getItemsByOwner(USER_ID, 0, 10, null));
+        calls.put("ItemRepository.findByUserId", () -> itemRepository.findByUserId(USER_ID));
+        calls.put("ItemRepository.findWithBookingsByUserId",
+                () -> itemRepository.findWithBookingsByUserId(USER_ID, 0L, PageRequest.of(0, 10)));
+        calls.put("CommentRepository.findAllByItemIdIn", () -> commentRepository.findAllByItemIdIn(
+                List.of(ITEM_ID, ITEM_ID + 20000, ITEM_ID + 40000), Sort.by(Sort.Direction.ASC, "created")));
+        calls.put("ItemBookingPointers.rollover", itemBookingPointers::rollover);
+        calls.put("BookingIntervalIndex.refresh", bookingIntervalIndex::refresh);
+        calls.put("BookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc",
+                () -> bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(
+                        ITEM_ID, Status.APPROVED, now));
+        calls.put("BookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc",
+                () -> bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(
+                        ITEM_ID, Status.APPROVED, now));
+        calls.put("BookingRepository.existsByBookerIdAndItemIdAndEndBefore",
+                () -> bookingRepository.existsByBookerIdAndItemIdAndEndBefore(USER_ID, ITEM_ID, now));
+        for (String state : List.of("ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED")) {
+            calls.put("BookingService.getAllBrookingByBookerId(" + state + ")",
+                    () -> bookingService.getAllBrookingByBookerId(OffsetPageRequest.of(0, 10), null, USER_ID, state));
+            calls.put("BookingService.getAllBookingsForAllItemsByOwnerId(" + state + ")",
+                    () -> bookingService.getAllBookingsForAllItemsByOwnerId(OffsetPageRequest.of(0, 10), null,
+                            USER_ID, state));
+        }
+        calls.put("BookingService.getAllBrookingByBookerId(ALL, after)",
+                () -> bookingService.getAllBrookingByBookerId(OffsetPageRequest.of(0, 10),
+                        PageCursor.of(now.minusYears(1), 500000L), USER_ID, "ALL"));
+        calls.put("BookingArchiver.archive", bookingArchiver::archive);
+
+        return calls.entrySet().stream()
+                .map(call -> DynamicTest.dynamicTest(call.getKey(), () -> {
+                    List<SqlStatementRecorder.Statement> statements = recorder.record(call.getValue());
+                    assertFalse(statements.isEmpty(), "no statements recorded");
+                    List<String> regressions = new ArrayList<>();
+                    for (SqlStatementRecorder.Statement statement : statements) {
+                        List<String> seqScans = new ArrayList<>();
+                        collectSeqScans(explain(statement).get(0).get("Plan"), seqScans);
+                        if (!seqScans.isEmpty()) {
+                            regressions.add("Seq Scan on " + seqScans + ": " + statement);
+                        }
+                    }
+                    assertTrue(regressions.isEmpty(), String.join("\n", regressions));
+                }));
+    }
+
+    private JsonNode explain(SqlStatementRecorder.Statement statement) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.getSql())) {
+            statement.bind(explain);
+            try (ResultSet plan = explain.executeQuery()) {
+                plan.next();
+                return objectMapper.readTree(plan.getString(1));
+            }
+        }
+    }
+
+    private void collectSeqScans(JsonNode plan, List<String> seqScans) {
+        String relation = plan.path("Relation Name").asText();
+        if ("Seq Scan".equals(plan.path("Node Type").asText())
+                && CHECKED_TABLES.stream().anyMatch(relation::startsWith)
+                && tableRows.getOrDefault(relation, 0L) >= MIN_ROWS) {
+            seqScans.add(relation);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.IncorrectCursorException;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilitary.PageCursor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Поиск по индексу без базы: ItemRepository отдает вещи, проиндексированные через index
+ */
+
+class ItemSearchIndexTest {
+    private final Map<Long, Item> stored = new HashMap<>();
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(anyLong(), any()))
+                .thenReturn(Collections.emptyList());
+        when(itemRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Item> found = new ArrayList<>();
+            ids.forEach(id -> {
+                if (stored.containsKey(id)) {
+                    found.add(stored.get(id));
+                }
+            });
+            return found;
+        });
+        index = new ItemSearchIndex(itemRepository, Duration.ofMinutes(5));
+        index.build();
+    }
+
+    @Test
+    void shortAndLongWordsMatchSubstringsOfTerms() {
+        put(1L, "Cordless drill", "drill with two batteries");
+        put(2L, "Hammer", "steel hammer");
+        put(3L, "Drilling machine", "bench drilling machine");
+
+        assertEquals(List.of(1L, 3L), sorted(search("ril")));
+        assertEquals(List.of(1L, 3L), sorted(search("dri")));
+        assertEquals(List.of(3L), search("drilli"));
+        assertEquals(List.of(1L, 2L, 3L), sorted(search("e")));
+        assertEquals(List.of(2L), search("amme"));
+        assertEquals(List.of(), search("hammers"));
+        assertEquals(List.of(1L), search("less batt"));
+    }
+
+    @Test
+    void removedTermsAreNotFound() {
+        put(1L, "Cordless drill", "drill with two batteries");
+        put(1L, "Cordless screwdriver", "screwdriver with two batteries");
+
+        assertEquals(List.of(), search("drill"));
+        assertEquals(List.of(1L), search("rewdri"));
+
+        index.remove(1L);
+        stored.remove(1L);
+
+        assertEquals(List.of(), search("rewdri"));
+        assertEquals(List.of(), search("w"));
+    }
+
+    @Test
+    void pagesContinueAfterCursorItemIsRemoved() {
+        putDrills();
+        List<Item> first = index.search("drill", 0, 4);
+        PageCursor cursor = PageCursor.decode(cursor(first.get(3)).encode());
+        assertEquals(List.of(6L, 5L, 4L, 3L), ids(first));
+
+        index.remove(3L);
+        stored.remove(3L);
+
+        assertEquals(List.of(2L, 1L), ids(index.searchAfter("drill", cursor, 2)));
+    }
+
+    @Test
+    void itemRankedAboveCursorIsNotRepeated() {
+        putDrills();
+        PageCursor cursor = PageCursor.decode(cursor(index.search("drill", 0, 3).get(2)).encode());
+
+        put(1L, "drill drill drill drill drill drill drill", "tool");
+
+        assertEquals(List.of(3L, 2L), ids(index.searchAfter("drill", cursor, 3)));
+    }
+
+    @Test
+    void cursorWithoutScoreIsRejected() {
+        put(1L, "drill", "drill");
+
+        assertThrows(IncorrectCursorException.class, () -> index.searchAfter("drill", PageCursor.of(1L), 2));
+    }
+
+    /**
+     * Вещь id содержит слово drill id раз, так что выдача по нему - 6, 5, ..., 1. Сотня вещей без него
+     * держит среднюю длину: изменение одной вещи почти не сдвигает оценки остальных
+     */
+    private void putDrills() {
+        for (long id = 1; id <= 6; id++) {
+            put(id, "drill ".repeat((int) id), "tool");
+        }
+        for (long id = 1000; id < 1100; id++) {
+            put(id, "hammer " + id, "hammer and nails");
+        }
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+
+    private static PageCursor cursor(Item item) {
+        return PageCursor.of(item.getSearchScore(), item.getId());
+    }
+
+    private void put(Long id, String name, String description) {
+        Item item = Item.builder().id(id).name(name).description(description).available(true).build();
+        stored.put(id, item);
+        index.index(item);
+    }
+
+    private List<Long> search(String text) {
+        return index.search(text, 0, 100).stream().map(Item::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().collect(Collectors.toList());
+    }
+}
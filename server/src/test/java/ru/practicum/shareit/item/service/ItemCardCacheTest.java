@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Читатель загружает вещь между generation и put; запись сбрасывает карточки вещи в этом промежутке
+ */
+
+class ItemCardCacheTest {
+    private static final Long ITEM_ID = 1L;
+    private static final Long OWNER_ID = 10L;
+    private static final Long USER_ID = 20L;
+
+    private ItemCardCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemCardCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void putWithoutEvictionIsCached() {
+        long generation = cache.generation(ITEM_ID);
+        put(ITEM_ID, generation);
+
+        assertNotNull(cache.find(ITEM_ID, USER_ID));
+    }
+
+    @Test
+    void putAfterEvictIsSkipped() {
+        long generation = cache.generation(ITEM_ID);
+        cache.evict(ITEM_ID);
+        put(ITEM_ID, generation);
+
+        assertNull(cache.find(ITEM_ID, USER_ID));
+    }
+
+    @Test
+    void putAfterEvictAllIsSkipped() {
+        long generation = cache.generation(ITEM_ID);
+        cache.evictAll();
+        put(ITEM_ID, generation);
+
+        assertNull(cache.find(ITEM_ID, USER_ID));
+    }
+
+    @Test
+    void putOfCardLoadedBeforeCommitIsSkipped() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict(ITEM_ID);
+        long generation = cache.generation(ITEM_ID);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        put(ITEM_ID, generation);
+
+        assertNull(cache.find(ITEM_ID, USER_ID));
+    }
+
+    @Test
+    void evictOfAnotherItemDoesNotSkipPut() {
+        long generation = cache.generation(ITEM_ID);
+        cache.evict(ITEM_ID + 1);
+        put(ITEM_ID, generation);
+
+        assertNotNull(cache.find(ITEM_ID, USER_ID));
+    }
+
+    private void put(Long itemId, long generation) {
+        cache.put(ItemDto.builder().id(itemId).name("drill").build(), OWNER_ID, false, null, generation);
+    }
+}
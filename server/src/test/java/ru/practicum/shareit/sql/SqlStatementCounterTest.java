@@ -0,0 +1,52 @@
+package ru.practicum.shareit.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SqlStatementCounter считает выражения и без JDBC-трассировки Sleuth, которая тоже оборачивает DataSource
+ */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.sleuth.jdbc.enabled=false")
+class SqlStatementCounterTest {
+    private static final long RECORD_TIMEOUT_MILLIS = 5000;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void statementsAreCountedWithoutSleuthJdbc() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+
+        DistributionSummary summary = summary();
+        for (long deadline = System.currentTimeMillis() + RECORD_TIMEOUT_MILLIS;
+             summary == null && System.currentTimeMillis() < deadline; summary = summary()) {
+            Thread.sleep(10);
+        }
+        assertNotNull(summary, "http.server.requests.sql was not recorded for GET /users");
+        assertTrue(summary.totalAmount() >= 1, "no statements counted for GET /users");
+    }
+
+    private DistributionSummary summary() {
+        return meterRegistry.find("http.server.requests.sql").tags("method", "GET", "uri", "/users").summary();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.sql;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Записывает SQL-выражения, выполненные текущим потоком, вместе с параметрами.
+ * Подключается к datasource-proxy, которым Sleuth оборачивает DataSource: бин QueryExecutionListener
+ * добавляется к прокси автоматически, в тесте его достаточно импортировать.
+ */
+
+public class SqlStatementRecorder implements QueryExecutionListener {
+    private static final ThreadLocal<List<Statement>> STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * Выражения, выполненные action в текущем потоке
+     */
+    public List<Statement> record(Runnable action) {
+        List<Statement> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+        try {
+            action.run();
+            return statements;
+        } finally {
+            STATEMENTS.remove();
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<Statement> statements = STATEMENTS.get();
+        if (statements == null) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            List<List<ParameterSetOperation>> parameters = queryInfo.getParametersList();
+            statements.add(new Statement(queryInfo.getQuery(), parameters.isEmpty()
+                    ? Collections.emptyList() : new ArrayList<>(parameters.get(0))));
+        }
+    }
+
+    /**
+     * Выражение и операции установки параметров первого (для пакета - единственного учитываемого) набора
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Statement {
+        private final String sql;
+        private final List<ParameterSetOperation> parameters;
+
+        /**
+         * Повторяет установку параметров на другом PreparedStatement, например на EXPLAIN этого выражения
+         */
+        public void bind(PreparedStatement statement) throws Exception {
+            for (ParameterSetOperation operation : parameters) {
+                try {
+                    operation.getMethod().invoke(statement, operation.getArgs());
+                } catch (InvocationTargetException e) {
+                    throw (Exception) e.getCause();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package ru.practicum.shareit.sql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
+import ru.practicum.shareit.item.service.ItemCardCache;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static ru.practicum.shareit.utilitary.Constants.HEADER_USER_ID;
+
+/**
+ * Число SQL-выражений на запрос для каждого эндпоинта, по метрике http.server.requests.sql (SqlStatementFilter).
+ * База заполняется через REST, затем каждый эндпоинт вызывается и сравнивается с бюджетом. Постраничные эндпоинты
+ * вызываются со страницами SMALL_PAGE и LARGE_PAGE: число выражений не должно расти с размером страницы.
+ * Перед каждым вызовом кэш второго уровня Hibernate и ItemCardCache очищаются: бюджет - число выражений
+ * при холодных кэшах, и результат не зависит от того, какие сущности загрузили предыдущие вызовы.
+ */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StatementBudgetTest {
+    private static final String METRIC = "http.server.requests.sql";
+    private static final int SEED_SIZE = 30;
+    private static final int SMALL_PAGE = 5;
+    private static final int LARGE_PAGE = 20;
+    /**
+     * Метрика пишется в finally фильтра, клиент может получить ответ раньше
+     */
+    private static final long RECORD_TIMEOUT_MILLIS = 5000;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ItemCardCache itemCardCache;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @TestFactory
+    List<DynamicTest> endpointsStayWithinStatementBudget() throws Exception {
+        long owner = create("/users", null, Map.of("name", "owner", "email", "owner@example.com"));
+        long booker = create("/users", null, Map.of("name", "booker", "email", "booker@example.com"));
+        long requester = create("/users", null, Map.of("name", "requester", "email", "requester@example.com"));
+        List<Long> requests = new ArrayList<>();
+        List<Long> items = new ArrayList<>();
+        for (int i = 0; i < SEED_SIZE; i++) {
+            requests.add(create("/requests", requester, Map.of("description", "request " + i)));
+            items.add(create("/items", owner, i < SEED_SIZE / 3
+                    ? Map.of("name", "item " + i, "description", "item " + i, "available", true,
+                    "requestId", requests.get(i))
+                    : Map.of("name", "item " + i, "description", "item " + i, "available", true)));
+        }
+        LocalDateTime future = LocalDateTime.now().plusYears(1).withNano(0);
+        for (int i = 0; i < SEED_SIZE; i++) {
+            long booking = create("/bookings", booker, booking(items.get(i), future.plusDays(2L * i)));
+            if (i % 2 == 0) {
+                call(HttpMethod.PATCH, "/bookings/" + booking + "?approved=true", owner, null);
+            }
+        }
+        LocalDateTime past = LocalDateTime.now().minusYears(1).withNano(0);
+        for (int i = 0; i < SEED_SIZE / 3; i++) {
+            long booking = create("/bookings", booker, booking(items.get(i), past.plusDays(2L * i)));
+            call(HttpMethod.PATCH, "/bookings/" + booking + "?approved=true", owner, null);
+            create("/items/" + items.get(i) + "/comment", booker, Map.of("text", "comment " + i));
+        }
+
+        long item = items.get(0);
+        long extraUser = create("/users", null, Map.of("name", "extra", "email", "extra@example.com"));
+        long extraItem = create("/items", owner, Map.of("name", "extra", "description", "extra", "available", true));
+        long extraBooking = create("/bookings", booker, booking(extraItem, future.minusDays(30)));
+
+        List<DynamicTest> checks = new ArrayList<>();
+        checks.add(check(HttpMethod.GET, "/users", 1, "/users", null, null));
+        checks.add(check(HttpMethod.GET, "/users/{userId}", 1, "/users/" + owner, null, null));
+        checks.add(check(HttpMethod.POST, "/users", 1, "/users", null,
+                Map.of("name", "new", "email", "new@example.com")));
+        checks.add(check(HttpMethod.PATCH, "/users/{userId}", 3, "/users/" + extraUser, null,
+                Map.of("name", "renamed")));
+        checks.add(check(HttpMethod.DELETE, "/users/{userId}", 2, "/users/" + extraUser, null, null));
+
+        checks.add(check(HttpMethod.GET, "/items/{itemId}", 3, "/items/" + item, owner, null));
+        checks.add(checkPaged("/items", 3, "/items?from=0&size=", owner));
+        checks.add(checkPaged("/items/search", 2, "/items/search?text=item&from=0&size=", booker));
+        checks.add(check(HttpMethod.GET, "/items/{itemId}/availability", 1, "/items/" + item
+                + "/availability?from=" + future + "&to=" + future.plusDays(30), booker, null));
+        checks.add(check(HttpMethod.POST, "/items", 2, "/items", owner,
+                Map.of("name", "new", "description", "new", "available", true)));
+        checks.add(check(HttpMethod.PATCH, "/items/{itemId}", 5, "/items/" + extraItem, owner,
+                Map.of("description", "updated")));
+        checks.add(check(HttpMethod.POST, "/items/{itemId}/comment", 4, "/items/" + item + "/comment", booker,
+                Map.of("text", "one more")));
+
+        checks.add(check(HttpMethod.POST, "/requests", 2, "/requests", requester, Map.of("description", "new")));
+        checks.add(checkPaged("/requests", 3, "/requests?from=0&size=", requester));
+        checks.add(checkPaged("/requests/all", 3, "/requests/all?from=0&size=", owner));
+        checks.add(check(HttpMethod.GET, "/requests/{requestId}", 3, "/requests/" + requests.get(0), owner, null));
+
+        checks.add(check(HttpMethod.POST, "/bookings", 4, "/bookings", booker,
+                booking(extraItem, future.minusDays(60))));
+        checks.add(check(HttpMethod.PATCH, "/bookings/{bookingId}", 6, "/bookings/" + extraBooking
+                + "?approved=true", owner, null));
+        checks.add(check(HttpMethod.GET, "/bookings/{bookingId}", 2, "/bookings/" + extraBooking, booker, null));
+        for (String state : List.of("ALL", "PAST", "FUTURE", "WAITING")) {
+            checks.add(checkPaged("/bookings", 3, "/bookings?state=" + state + "&from=0&size=", booker));
+            checks.add(checkPaged("/bookings/owner", 4, "/bookings/owner?state=" + state + "&from=0&size=", owner));
+        }
+        return checks;
+    }
+
+    /**
+     * Проверки выполняются по порядку: PATCH и DELETE /users/{userId} работают с одним пользователем,
+     * PATCH /bookings/{bookingId} подтверждает бронирование, созданное при заполнении
+     */
+    private DynamicTest check(HttpMethod method, String uri, int budget, String path, Long userId, Object body) {
+        return DynamicTest.dynamicTest(method + " " + path, () -> {
+            int statements = statements(method, uri, path, userId, body);
+            assertTrue(statements > 0, "no statements counted");
+            assertTrue(statements <= budget, statements + " statements, budget " + budget);
+        });
+    }
+
+    private DynamicTest checkPaged(String uri, int budget, String path, Long userId) {
+        return DynamicTest.dynamicTest("GET " + path + "{" + SMALL_PAGE + "," + LARGE_PAGE + "}", () -> {
+            int small = statements(HttpMethod.GET, uri, path + SMALL_PAGE, userId, null);
+            int large = statements(HttpMethod.GET, uri, path + LARGE_PAGE, userId, null);
+            assertTrue(large > 0, "no statements counted");
+            assertTrue(large <= small, large + " statements for size=" + LARGE_PAGE + ", "
+                    + small + " for size=" + SMALL_PAGE);
+            assertTrue(large <= budget, large + " statements, budget " + budget);
+        });
+    }
+
+    /**
+     * Выражения одного запроса - прирост суммы метрики с тегами method и uri
+     */
+    private int statements(HttpMethod method, String uri, String path, Long userId, Object body)
+            throws IOException, InterruptedException {
+        DistributionSummary summary = summary(method, uri);
+        long count = summary == null ? 0 : summary.count();
+        double total = summary == null ? 0 : summary.totalAmount();
+        HttpResponse<String> response = call(method, path, userId, body);
+        assertEquals(2, response.statusCode() / 100, response.body());
+
+        long deadline = System.currentTimeMillis() + RECORD_TIMEOUT_MILLIS;
+        for (summary = summary(method, uri); summary == null || summary.count() == count;
+             summary = summary(method, uri)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(METRIC + " was not recorded for " + method + " " + uri);
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(count + 1, summary.count());
+        return (int) (summary.totalAmount() - total);
+    }
+
+    private DistributionSummary summary(HttpMethod method, String uri) {
+        return meterRegistry.find(METRIC).tags("method", method.name(), "uri", uri).summary();
+    }
+
+    private long create(String path, Long userId, Object body) throws IOException, InterruptedException {
+        HttpResponse<String> response = call(HttpMethod.POST, path, userId, body);
+        assertEquals(2, response.statusCode() / 100, "POST " + path + ": " + response.body());
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private HttpResponse<String> call(HttpMethod method, String path, Long userId, Object body)
+            throws IOException, InterruptedException {
+        entityManagerFactory.getCache().evictAll();
+        itemCardCache.evictAll();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method.name(), body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (userId != null) {
+            request.header(HEADER_USER_ID, String.valueOf(userId));
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<String, Object> booking(long itemId, LocalDateTime start) {
+        return Map.of("itemId", itemId, "start", start.toString(), "end", start.plusDays(1).toString());
+    }
+}
@@ -0,0 +1,36 @@
+-- Синтетический набор данных для ExplainPlanTest (mvn -Pexplain test, только PostgreSQL).
+-- Бронирования одной вещи идут с шагом 82 дня и не пересекаются, последний слот каждой вещи - в будущем.
+
+INSERT INTO users (name, email)
+SELECT 'user' || g, 'user' || g || '@example.com'
+FROM generate_series(1, 20000) AS g;
+
+INSERT INTO requests (description, requester_id, created)
+SELECT 'request ' || g, 1 + g % 20000, now() - g * interval '1 minute'
+FROM generate_series(1, 50000) AS g;
+
+INSERT INTO items (name, description, is_available, user_id, request_id)
+SELECT 'item ' || g, 'description ' || md5(g::text), g % 10 <> 0, 1 + g % 20000,
+       CASE WHEN g % 5 = 0 THEN 1 + g % 50000 END
+FROM generate_series(1, 100000) AS g;
+
+SELECT create_bookings_partition(month::date)
+FROM generate_series(date_trunc('month', now() - interval '2 years'), now() + interval '1 year', interval '1 month') AS month;
+
+INSERT INTO bookings (start_date, end_date, item_id, booker_id, status, updated_at)
+SELECT now() - interval '2 years' + (g / 100000) * interval '82 days',
+       now() - interval '2 years' + (g / 100000) * interval '82 days' + interval '1 day',
+       1 + g % 100000, 1 + (g * 7) % 20000,
+       CASE g % 4 WHEN 0 THEN 'WAITING' WHEN 1 THEN 'REJECTED' ELSE 'APPROVED' END,
+       least(now() - interval '2 years' + (g / 100000) * interval '82 days', now()) - interval '1 hour'
+FROM generate_series(0, 999999) AS g;
+
+UPDATE items SET next_booking_id = b.id
+FROM bookings AS b
+WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.start_date > now();
+
+INSERT INTO comments (text, created, item_id, author_id)
+SELECT 'comment ' || g, now() - g * interval '1 minute', 1 + g % 100000, 1 + (g * 13) % 20000
+FROM generate_series(1, 200000) AS g;
+
+ANALYZE;